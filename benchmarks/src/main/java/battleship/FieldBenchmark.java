@@ -0,0 +1,90 @@
+package battleship;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the field: placing the fleet, shooting every cell and looking for cells to shoot at.
+ * Shooting needs a fresh fleet every time, so {@link #checkDeckAtField()} includes {@link #putShip()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark {
+    /**
+     * Always the same legal fleet: x, y, number of decks, 1 if placed by X
+     */
+    private static final int[][] FLEET = {
+            {0, 0, 4, 1},
+            {6, 0, 3, 1}, {0, 2, 3, 0},
+            {2, 2, 2, 1}, {5, 2, 2, 0}, {8, 2, 2, 0},
+            {2, 5, 1, 1}, {4, 7, 1, 1}, {7, 6, 1, 1}, {9, 9, 1, 1}
+    };
+
+    private final Field field = new Field();
+    private final Field halfShot = new Field();
+    private final Ship ship = new Ship(3, 3, 4, 6, 3);
+
+    @Setup
+    public void setUp() throws ShipPlacementException {
+        Logger.setLevel(Logger.Level.WARN);
+        placeFleet(halfShot);
+        halfShot.clear();
+        for (int cell = 0; cell < halfShot.getWidth() * halfShot.getHeight(); cell += 2) {
+            halfShot.checkDeckAtField(cell % halfShot.getWidth(), cell / halfShot.getWidth());
+        }
+    }
+
+    private static void placeFleet(Field field) throws ShipPlacementException {
+        for (int[] ship : FLEET) {
+            if (ship[2] == 1) field.putShip(ship[0], ship[1]);
+            else if (ship[3] == 1) field.putShip(ship[0], ship[1], ship[2], ship[0] + ship[2] - 1, ship[1]);
+            else field.putShip(ship[0], ship[1], ship[2], ship[0], ship[1] + ship[2] - 1);
+        }
+    }
+
+    @Benchmark
+    public int putShip() throws ShipPlacementException {
+        field.reset();
+        placeFleet(field);
+        return field.getShipsNumber();
+    }
+
+    @Benchmark
+    public int checkDeckAtField() throws ShipPlacementException {
+        field.reset();
+        placeFleet(field);
+        field.clear();
+        int sum = 0;
+        for (int y = 0; y < field.getHeight(); y++) {
+            for (int x = 0; x < field.getWidth(); x++) {
+                sum += field.checkDeckAtField(x, y);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public void getEmptyCells(Blackhole blackhole) {
+        blackhole.consume(halfShot.getEmptyCells());
+    }
+
+    @Benchmark
+    public void shipGetCoordinates(Blackhole blackhole) {
+        blackhole.consume(ship.getCoordinates());
+    }
+}
@@ -0,0 +1,59 @@
+package battleship;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computer's hot paths: random placement of the whole fleet and the whole headless game
+ * (placement of both fleets plus shooting until somebody wins) for every registered strategy
+ * at the classic field and at the big one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"random", "parity", "density"})
+    public String strategy;
+
+    @Param({"10x10:4,3,2,1", "100x100:40,30,20,10"})
+    public String config;
+
+    private GameConfig gameConfig;
+
+    private boolean firstStarts;
+
+    @Setup
+    public void setUp() {
+        Logger.setLevel(Logger.Level.WARN);
+        gameConfig = GameConfig.parse(config);
+    }
+
+    @Benchmark
+    public int placeShips() {
+        MachineLogic computer = Tournament.headlessComputer(strategy, "Computer", gameConfig);
+        computer.placeShips();
+        return computer.getCell(0, 0);
+    }
+
+    @Benchmark
+    public boolean headlessGame() {
+        LocalPlayer first = Tournament.headlessComputer(strategy, "Computer 1", gameConfig);
+        LocalPlayer second = Tournament.headlessComputer(strategy, "Computer 2", gameConfig);
+        firstStarts = !firstStarts;
+        return Tournament.playGame(first, second, firstStarts) == first;
+    }
+}
@@ -0,0 +1,113 @@
+package battleship;
+
+/**
+ * Set of cells of the battlefield packed into an array of longs.
+ * Cell with coordinates (x, y) has index {@code y * width + x}, so every row is a continuous range of bits
+ * and checks of ships (which are always ranges in rows or single cells in columns)
+ * touch only one or two words no matter how big the field is.
+ *
+ * All methods are working in place, so nothing is allocated while the game is running.
+ */
+final class BitBoard {
+    private final int size;
+    private final long[] words;
+
+    /**
+     * Creates empty set for the field with some number of cells
+     */
+    BitBoard(int size) {
+        this.size = size;
+        this.words = new long[(size + 63) >>> 6];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean get(int cell) {
+        return (words[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    void set(int cell) {
+        words[cell >>> 6] |= 1L << cell;
+    }
+
+    void clear(int cell) {
+        words[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /**
+     * Removes all cells from this set
+     */
+    void clear() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0;
+        }
+    }
+
+    /**
+     * Checks that there are no cells in the range [from, to)
+     */
+    boolean isRangeClear(int from, int to) {
+        if (from >= to) return true;
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) return (words[first] & firstMask & lastMask) == 0;
+        if ((words[first] & firstMask) != 0) return false;
+        for (int i = first + 1; i < last; i++) {
+            if (words[i] != 0) return false;
+        }
+        return (words[last] & lastMask) == 0;
+    }
+
+    /**
+     * Adds every cell of the range [from, to)
+     */
+    void setRange(int from, int to) {
+        if (from >= to) return;
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        for (int i = first; i <= last; i++) {
+            long mask = -1L;
+            if (i == first) mask &= -1L << from;
+            if (i == last) mask &= -1L >>> -to;
+            words[i] |= mask;
+        }
+    }
+
+    /**
+     * this = this | other
+     */
+    void or(BitBoard other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Checks if there is at least one cell presented in both sets
+     */
+    boolean intersects(BitBoard other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0) return true;
+        }
+        return false;
+    }
+
+    boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    int cardinality() {
+        int result = 0;
+        for (long word : words) {
+            result += Long.bitCount(word);
+        }
+        return result;
+    }
+}
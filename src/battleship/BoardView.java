@@ -0,0 +1,75 @@
+package battleship;
+
+/**
+ * Read-only view of some field for strategies.
+ * Implementations are not allocating anything, so they could be asked for every cell on every move.
+ */
+interface BoardView {
+    /**
+     * Nobody shoot here yet and there is no ship (or the ship is hidden from the viewer)
+     */
+    int EMPTY = 0;
+
+    /**
+     * Shooted cell without a ship or a cell around a ship
+     */
+    int MISSED = 1;
+
+    /**
+     * Hited deck of a ship
+     */
+    int HIT = 2;
+
+    /**
+     * Deck of a ship nobody shoot at. Only the owner of the field can see it.
+     */
+    int SHIP = 3;
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Returns one of {@link #EMPTY}, {@link #MISSED}, {@link #HIT} or {@link #SHIP}
+     */
+    int getCellState(int x, int y);
+
+    /**
+     * Checks if nobody shoot at this cell yet
+     */
+    boolean isAvailableForShoot(int x, int y);
+
+    /**
+     * Checks if a ship could be placed here: it is inside the field and doesn't touch other ships.
+     * The observer can't see ships, so its view only checks that nobody shoot at those cells yet.
+     */
+    boolean canPlaceShip(int x, int y, int numberOfDecks, boolean xDirection);
+
+    /**
+     * The number of ships that are still alive
+     */
+    int getShipsNumber();
+
+    /**
+     * Size of the field and the fleet at it. Everybody knows which ships the enemy has.
+     */
+    GameConfig getConfig();
+
+    /**
+     * The number of cells nobody shoot at yet
+     */
+    int getAvailableCellsNumber();
+
+    /**
+     * Returns packed coordinates (see {@link Coordinates#pack(int, int)}) of the n-th (from 0)
+     * cell nobody shoot at yet. Cells are in no particular order and it changes after shoots,
+     * but any number from 0 to {@link #getAvailableCellsNumber()} gives a different cell. Costs O(1).
+     */
+    int getAvailableCell(int number);
+
+    /**
+     * Zobrist hash (see {@link Zobrist}) of everything the view shows: XOR of keys of all not empty cells.
+     * Equal positions at fields of the same size have equal hashes. It is kept up to date by the field, so it costs O(1).
+     */
+    long getPositionHash();
+}
@@ -0,0 +1,198 @@
+package battleship;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Wraps some expensive strategy and remembers its choices in the {@link ShotCache}, so positions that are
+ * met again (first shoots of every game, common positions after them) are answered without asking the strategy.
+ *
+ * The position is what the shooter can see at the enemy's field: misses and dots, hited decks.
+ * Positions that differ only by a rotation or a reflection of the field are the same position: the hash is counted
+ * for all 8 symmetries of a square field (4 of not square one) and the smallest one is used, while the cell
+ * is saved in the coordinates of that symmetry. The hash of the symmetry 0 is {@link BoardView#getPositionHash()}
+ * of the view. The hash is also mixed with the name of the strategy and the config, so different strategies
+ * and fields could share one cache.
+ *
+ * Hashes of symmetries are kept between shoots: cells only become missed or hited and never change back,
+ * so after every own shoot only the shot cell is looked at, and cells around the ship when a deck was hit.
+ * If the hash of the symmetry 0 doesn't match the view after that (somebody else shot there, a new game)
+ * the whole field is scanned again.
+ *
+ * The wrapped strategy gets results of every shoot, including the cached ones, so it stays in sync.
+ * Cached shoots are not random anymore, so games with the same seed are the same only with the same cache.
+ */
+class CachedShotStrategy implements ShotStrategy {
+    private static final int SYMMETRIES = 8;
+
+    private final String name;
+    private final ShotStrategy strategy;
+    private final ShotCache cache;
+
+    private boolean started = false;
+    private long salt;
+    private final long[] hashes = new long[SYMMETRIES];
+
+    /**
+     * States of cells that are counted in hashes, null before the first scan
+     */
+    private byte[] counted;
+
+    /**
+     * Own shoot that isn't counted in hashes yet, -1 if there is none
+     */
+    private int lastShot = -1;
+
+    CachedShotStrategy(String name, ShotStrategy strategy, ShotCache cache) {
+        this.name = name;
+        this.strategy = strategy;
+        this.cache = cache;
+    }
+
+    @Override
+    public void start(BoardView enemy) {
+        if (started) return;
+        started = true;
+        salt = Zobrist.mix(name.hashCode() * 31L + enemy.getConfig().hashCode());
+        strategy.start(enemy);
+    }
+
+    @Override
+    public String getName() {
+        return Strategies.CACHED_PREFIX + strategy.getName();
+    }
+
+    @Override
+    public int nextShot(BoardView enemy, SplittableRandom random) {
+        start(enemy);
+        int width = enemy.getWidth();
+        int height = enemy.getHeight();
+        int symmetries = width == height ? SYMMETRIES : SYMMETRIES / 2;
+        if (counted != null && lastShot >= 0) countShot(enemy, Coordinates.x(lastShot), Coordinates.y(lastShot), symmetries);
+        lastShot = -1;
+        if (counted == null || hashes[0] != enemy.getPositionHash()) scan(enemy, symmetries);
+        int canonical = 0;
+        for (int symmetry = 1; symmetry < symmetries; symmetry++) {
+            if (hashes[symmetry] < hashes[canonical]) canonical = symmetry;
+        }
+        long key = Zobrist.mix(hashes[canonical] ^ salt);
+
+        int cached = cache.get(key);
+        if (cached >= 0) {
+            int shot = inverse(canonical, cached, width, height);
+            if (enemy.isAvailableForShoot(Coordinates.x(shot), Coordinates.y(shot))) return shot;
+        }
+        int shot = strategy.nextShot(enemy, random);
+        cache.put(key, transform(canonical, Coordinates.x(shot), Coordinates.y(shot), width, height));
+        return shot;
+    }
+
+    @Override
+    public void shotResult(int coordinates, int result) {
+        lastShot = coordinates;
+        strategy.shotResult(coordinates, result);
+    }
+
+    /**
+     * Counts every cell of the view in hashes from scratch. The symmetry 0 is the hash of the view itself.
+     */
+    private void scan(BoardView enemy, int symmetries) {
+        int width = enemy.getWidth();
+        int height = enemy.getHeight();
+        if (counted == null || counted.length != width * height) counted = new byte[width * height];
+        Arrays.fill(counted, (byte) BoardView.EMPTY);
+        Arrays.fill(hashes, 0L);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int state = enemy.getCellState(x, y);
+                if (state == BoardView.EMPTY) continue;
+                counted[y * width + x] = (byte) state;
+                for (int symmetry = 1; symmetry < symmetries; symmetry++) {
+                    hashes[symmetry] ^= Zobrist.key(state, transform(symmetry, x, y, width, height));
+                }
+            }
+        }
+        hashes[0] = enemy.getPositionHash();
+    }
+
+    /**
+     * Counts cells changed by the shoot: the cell itself, and if it is a hited deck then cells around
+     * every hited deck in line with it, where dots are put when the ship is killed
+     */
+    private void countShot(BoardView enemy, int x, int y, int symmetries) {
+        if (enemy.getCellState(x, y) != BoardView.HIT) {
+            countCell(enemy, x, y, symmetries);
+            return;
+        }
+        countAround(enemy, x, y, symmetries);
+        // ships don't touch each other, so hited decks in line with this one belong to the same ship
+        for (int direction = 0; direction < 4; direction++) {
+            int dx = direction == 0 ? 1 : direction == 1 ? -1 : 0;
+            int dy = direction == 2 ? 1 : direction == 3 ? -1 : 0;
+            for (int deckX = x + dx, deckY = y + dy; isInside(enemy, deckX, deckY)
+                    && enemy.getCellState(deckX, deckY) == BoardView.HIT; deckX += dx, deckY += dy) {
+                countAround(enemy, deckX, deckY, symmetries);
+            }
+        }
+    }
+
+    private void countAround(BoardView enemy, int x, int y, int symmetries) {
+        for (int aroundY = y - 1; aroundY <= y + 1; aroundY++) {
+            for (int aroundX = x - 1; aroundX <= x + 1; aroundX++) {
+                if (isInside(enemy, aroundX, aroundY)) countCell(enemy, aroundX, aroundY, symmetries);
+            }
+        }
+    }
+
+    /**
+     * Replaces the counted state of the cell with the state in the view
+     */
+    private void countCell(BoardView enemy, int x, int y, int symmetries) {
+        int width = enemy.getWidth();
+        int height = enemy.getHeight();
+        int state = enemy.getCellState(x, y);
+        int old = counted[y * width + x];
+        if (state == old) return;
+        counted[y * width + x] = (byte) state;
+        for (int symmetry = 0; symmetry < symmetries; symmetry++) {
+            int cell = transform(symmetry, x, y, width, height);
+            if (old != BoardView.EMPTY) hashes[symmetry] ^= Zobrist.key(old, cell);
+            if (state != BoardView.EMPTY) hashes[symmetry] ^= Zobrist.key(state, cell);
+        }
+    }
+
+    private static boolean isInside(BoardView enemy, int x, int y) {
+        return x >= 0 && y >= 0 && x < enemy.getWidth() && y < enemy.getHeight();
+    }
+
+    /**
+     * Returns the cell (y * width + x) where the cell goes after the symmetry:
+     * bit 0 - reflection by X, bit 1 - reflection by Y, bit 2 - swapping X and Y (only for square fields).
+     */
+    static int transform(int symmetry, int x, int y, int width, int height) {
+        if ((symmetry & 1) != 0) x = width - 1 - x;
+        if ((symmetry & 2) != 0) y = height - 1 - y;
+        if ((symmetry & 4) != 0) {
+            int swap = x;
+            x = y;
+            y = swap;
+        }
+        return y * width + x;
+    }
+
+    /**
+     * Returns packed coordinates of the cell that goes to the given cell after the symmetry
+     */
+    static int inverse(int symmetry, int cell, int width, int height) {
+        int x = cell % width;
+        int y = cell / width;
+        if ((symmetry & 4) != 0) {
+            int swap = x;
+            x = y;
+            y = swap;
+        }
+        if ((symmetry & 2) != 0) y = height - 1 - y;
+        if ((symmetry & 1) != 0) x = width - 1 - x;
+        return Coordinates.pack(x, y);
+    }
+}
@@ -0,0 +1,57 @@
+package battleship;
+
+/**
+ * The game of the user at the console against the computer, moved by the {@link GameEngine} like games at the server.
+ *
+ * Nothing here decides whose turn it is or when the game is over: the engine does. The console only feeds events
+ * into it: the line read from the user becomes the shoot of the user, and the cell chosen by the strategy
+ * becomes the shoot of the computer. The user always shoots first.
+ */
+final class ConsoleGame implements GameEngine.Listener {
+    private static final int HUMAN = 0;
+    private static final int COMPUTER = 1;
+
+    private final UserInterface ui;
+    private final MachineLogic ai;
+    private final GameEngine engine;
+
+    ConsoleGame(UserInterface ui, MachineLogic ai) {
+        this.ui = ui;
+        this.ai = ai;
+        engine = new GameEngine(ui, ai, true);
+        engine.setListener(this);
+    }
+
+    /**
+     * Plays until somebody loses all ships. Both players should have their ships placed.
+     */
+    void play() {
+        engine.shipsPlaced(HUMAN);
+        engine.shipsPlaced(COMPUTER);
+        while (engine.getState() != GameEngine.State.FINISHED) {
+            if (engine.getAttacker() == HUMAN) humanShot();
+            else computerShot();
+        }
+    }
+
+    private void humanShot() {
+        ui.drawAllFields(ai);
+        int shot = ui.readShot(ai);
+        engine.shoot(HUMAN, Coordinates.x(shot), Coordinates.y(shot));
+    }
+
+    private void computerShot() {
+        int shot = ai.chooseShot(ui.getObserverView());
+        int result = engine.shoot(COMPUTER, Coordinates.x(shot), Coordinates.y(shot));
+        ai.shotResult(shot, result);
+        ai.pause();
+    }
+
+    /**
+     * Results of computer's shoots are told to the user by {@link UserInterface#beingAttacked(int, int)}
+     */
+    @Override
+    public void shot(GameEngine game, int shooter, int x, int y, int result) {
+        if (shooter == HUMAN) ui.shotResult(x, y, result);
+    }
+}
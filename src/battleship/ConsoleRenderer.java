@@ -0,0 +1,321 @@
+package battleship;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * Draws fields to the console. The whole frame is composed in one reusable char array
+ * and written to the stream by one write, instead of printing every cell.
+ *
+ * Without ANSI the frame is printed as text lines, the same as fields were always printed.
+ * With ANSI (the "battleship.ansi" property, by default it is on when there is a terminal) the frame stays
+ * at the top of the screen: the first frame clears the screen and makes the rest of it a scrolling region
+ * for messages, and next frames of the same size are rewriting only lines that were changed,
+ * moving the cursor there and back.
+ */
+final class ConsoleRenderer {
+    private static final String CSI = "\u001B[";
+    private static final String SAVE_CURSOR = "\u001B7";
+    private static final String RESTORE_CURSOR = "\u001B8";
+    private static final String GAP = " ";
+
+    private static ConsoleRenderer console = null;
+
+    private final PrintStream out;
+    private final boolean ansi;
+    private final CharsetEncoder encoder;
+
+    /**
+     * Lines of the frame, every one takes "stride" chars and its length is in "lengths"
+     */
+    private char[] frame = new char[0];
+    private int[] lengths = new int[0];
+    private int stride;
+    private int lines;
+
+    /**
+     * The previous frame as it is on the screen now
+     */
+    private char[] shown = new char[0];
+    private int[] shownLengths = new int[0];
+    private int shownLines = -1;
+    private int shownStride;
+
+    private int line;
+    private int column;
+    private CharBuffer text = CharBuffer.allocate(1024);
+    private ByteBuffer bytes = ByteBuffer.allocate(1024);
+    private final char[] columnName = new char[4];
+
+    ConsoleRenderer(PrintStream out, Charset charset, boolean ansi) {
+        this.out = out;
+        this.ansi = ansi;
+        encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * The renderer of the standard output
+     */
+    static synchronized ConsoleRenderer console() {
+        if (console == null) {
+            String term = System.getenv("TERM");
+            boolean terminal = System.console() != null && term != null && !term.equals("dumb");
+            boolean ansi = Boolean.parseBoolean(System.getProperty("battleship.ansi", String.valueOf(terminal)));
+            String encoding = System.getProperty("sun.stdout.encoding");
+            console = new ConsoleRenderer(System.out, encoding != null ? Charset.forName(encoding) : Charset.defaultCharset(), ansi);
+        }
+        return console;
+    }
+
+    /**
+     * Draws the field of the player with ships
+     */
+    void drawField(Player player) {
+        GameEvents.Console render = new GameEvents.Console();
+        render.start();
+        int width = player.getConfig().getWidth();
+        int height = player.getConfig().getHeight();
+        int numberWidth = String.valueOf(height).length();
+        start(height + 3, numberWidth + 2 + width * 3 + 1);
+
+        putBorder(numberWidth, width);
+        endLine();
+        for (int y = height - 1; y >= 0; y--) {
+            putRow(player, y, numberWidth, width, false);
+            endLine();
+        }
+        putBorder(numberWidth, width);
+        endLine();
+        putColumnNames(numberWidth, width);
+        endLine();
+        render.finish(GameEvents.Console.RENDER, lines * stride);
+        show();
+    }
+
+    /**
+     * Draws the field of the player with ships and the field of the enemy without them, side by side
+     */
+    void drawFields(Player player, Player enemy, String title) {
+        GameEvents.Console render = new GameEvents.Console();
+        render.start();
+        int width = player.getConfig().getWidth();
+        int height = player.getConfig().getHeight();
+        int numberWidth = String.valueOf(height).length();
+        int fieldWidth = numberWidth + 2 + width * 3 + 1;
+        start(height + 4, Math.max(title.length(), fieldWidth * 2 + GAP.length()));
+
+        put(title);
+        endLine();
+        putBorder(numberWidth, width);
+        put(GAP);
+        putBorder(numberWidth, width);
+        endLine();
+        for (int y = height - 1; y >= 0; y--) {
+            putRow(player, y, numberWidth, width, false);
+            put(GAP);
+            putRow(enemy, y, numberWidth, width, true);
+            endLine();
+        }
+        putBorder(numberWidth, width);
+        put(GAP);
+        putBorder(numberWidth, width);
+        endLine();
+        putColumnNames(numberWidth, width);
+        while (column < fieldWidth + GAP.length()) {
+            put(' ');
+        }
+        putColumnNames(numberWidth, width);
+        endLine();
+        render.finish(GameEvents.Console.RENDER, lines * stride);
+        show();
+    }
+
+    /**
+     * Line above and below the field: every cell takes 3 symbols plus 2 more for borders
+     */
+    private void putBorder(int numberWidth, int width) {
+        for (int i = 0; i <= numberWidth; i++) {
+            put(' ');
+        }
+        for (int i = 0; i < width * 3 + 2; i++) {
+            put('-');
+        }
+    }
+
+    private void putRow(Player player, int y, int numberWidth, int width, boolean hideShips) {
+        int number = y + 1;
+        for (int digits = String.valueOf(number).length(); digits < numberWidth; digits++) {
+            put(' ');
+        }
+        putNumber(number);
+        put(' ');
+        put('|');
+        for (int x = 0; x < width; x++) {
+            put(' ');
+            put(hideShips ? player.getCellSafe(x, y) : player.getCell(x, y));
+            put(' ');
+        }
+        put('|');
+    }
+
+    /**
+     * Names of columns under the field, every name is centered in its cell when possible.
+     * Nothing is put after the last name, so the line has no trailing spaces.
+     */
+    private void putColumnNames(int numberWidth, int width) {
+        for (int i = 0; i < numberWidth + 2; i++) {
+            put(' ');
+        }
+        for (int x = 0; x < width; x++) {
+            int length = 0;
+            for (int n = x + 1; n > 0; n = (n - 1) / 26) {
+                columnName[length++] = (char) ('A' + (n - 1) % 26);
+            }
+            if (length == 1) put(' ');
+            for (int i = length - 1; i >= 0; i--) {
+                put(columnName[i]);
+            }
+            if (x == width - 1) break;
+            for (int i = length == 1 ? 2 : length; i < 3; i++) {
+                put(' ');
+            }
+        }
+    }
+
+    private void putNumber(int number) {
+        if (number >= 10) putNumber(number / 10);
+        put((char) ('0' + number % 10));
+    }
+
+    private void put(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            put(value.charAt(i));
+        }
+    }
+
+    private void put(char c) {
+        frame[line * stride + column++] = c;
+    }
+
+    private void endLine() {
+        lengths[line++] = column;
+        column = 0;
+    }
+
+    /**
+     * Prepares the frame for some number of lines that are not longer than "stride"
+     */
+    private void start(int lines, int stride) {
+        if (frame.length < lines * stride) frame = new char[lines * stride];
+        if (lengths.length < lines) lengths = new int[lines];
+        this.lines = lines;
+        this.stride = stride;
+        line = 0;
+        column = 0;
+    }
+
+    /**
+     * Writes the composed frame: all of it or only changed lines
+     */
+    private void show() {
+        text.clear();
+        boolean sameLayout = ansi && shownLines == lines && shownStride == stride;
+        if (!ansi) {
+            for (int i = 0; i < lines; i++) {
+                appendLine(i);
+                append(System.lineSeparator());
+            }
+        } else if (!sameLayout) {
+            // the new frame takes the top of the screen and messages are scrolled below it
+            append(CSI + "r" + CSI + "2J" + CSI + "H");
+            for (int i = 0; i < lines; i++) {
+                appendLine(i);
+                append("\r\n");
+            }
+            append(CSI + (lines + 1) + "r" + CSI + (lines + 1) + ";1H");
+        } else {
+            append(SAVE_CURSOR);
+            for (int i = 0; i < lines; i++) {
+                if (isShown(i)) continue;
+                append(CSI + (i + 1) + ";1H");
+                appendLine(i);
+                append(CSI + "K");
+            }
+            append(RESTORE_CURSOR);
+        }
+        write();
+        remember();
+    }
+
+    private boolean isShown(int i) {
+        return lengths[i] == shownLengths[i]
+                && Arrays.equals(frame, i * stride, i * stride + lengths[i], shown, i * stride, i * stride + lengths[i]);
+    }
+
+    private void remember() {
+        if (!ansi) return;
+        if (shown.length < frame.length) shown = new char[frame.length];
+        if (shownLengths.length < lengths.length) shownLengths = new int[lengths.length];
+        System.arraycopy(frame, 0, shown, 0, lines * stride);
+        System.arraycopy(lengths, 0, shownLengths, 0, lines);
+        shownLines = lines;
+        shownStride = stride;
+    }
+
+    private void appendLine(int i) {
+        ensureText(lengths[i]);
+        text.put(frame, i * stride, lengths[i]);
+    }
+
+    private void append(String value) {
+        ensureText(value.length());
+        text.put(value);
+    }
+
+    private void ensureText(int needed) {
+        if (text.remaining() >= needed) return;
+        CharBuffer bigger = CharBuffer.allocate(Math.max(text.capacity() * 2, text.position() + needed));
+        text.flip();
+        text = bigger.put(text);
+    }
+
+    /**
+     * Encodes the text into the reused buffer and writes it by one call, after everything printed before
+     */
+    private void write() {
+        text.flip();
+        while (true) {
+            bytes.clear();
+            encoder.reset();
+            CoderResult result = encoder.encode(text, bytes, true);
+            if (!result.isOverflow()) result = encoder.flush(bytes);
+            if (!result.isOverflow()) break;
+            text.rewind();
+            bytes = ByteBuffer.allocate(bytes.capacity() * 2);
+        }
+        out.flush();
+        GameEvents.Console event = new GameEvents.Console();
+        event.start();
+        out.write(bytes.array(), 0, bytes.position());
+        out.flush();
+        event.finish(GameEvents.Console.WRITE, bytes.position());
+    }
+
+    /**
+     * Gives the whole screen back to scrolling, so the terminal is left as it was
+     */
+    void reset() {
+        if (!ansi || shownLines < 0) return;
+        out.print(CSI + "r" + CSI + "999;1H");
+        out.flush();
+        shownLines = -1;
+    }
+}
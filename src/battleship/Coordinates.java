@@ -0,0 +1,90 @@
+package battleship;
+
+/**
+ * Helper for coordinates packed into a single {@code int}, so strategies don't need to allocate arrays.
+ *
+ * Cell: {@code x << 16 | y}.
+ * Ship placement: {@code x << 20 | y << 8 | numberOfDecks << 1 | direction}, where direction is 1 for ships placed by X.
+ */
+final class Coordinates {
+    private Coordinates() {
+    }
+
+    static int pack(int x, int y) {
+        return x << 16 | y;
+    }
+
+    static int x(int packed) {
+        return packed >>> 16;
+    }
+
+    static int y(int packed) {
+        return packed & 0xFFFF;
+    }
+
+    static int packPlacement(int x, int y, int numberOfDecks, boolean xDirection) {
+        return x << 20 | y << 8 | numberOfDecks << 1 | (xDirection ? 1 : 0);
+    }
+
+    static int placementX(int placement) {
+        return placement >>> 20;
+    }
+
+    static int placementY(int placement) {
+        return placement >>> 8 & 0xFFF;
+    }
+
+    static int placementDecks(int placement) {
+        return placement >>> 1 & 0x7F;
+    }
+
+    static boolean placementByX(int placement) {
+        return (placement & 1) != 0;
+    }
+
+    /**
+     * Returns X of the last deck of the placed ship
+     */
+    static int placementEndX(int placement) {
+        return placementX(placement) + (placementByX(placement) ? placementDecks(placement) - 1 : 0);
+    }
+
+    /**
+     * Returns Y of the last deck of the placed ship
+     */
+    static int placementEndY(int placement) {
+        return placementY(placement) + (placementByX(placement) ? 0 : placementDecks(placement) - 1);
+    }
+
+    /**
+     * Converts coordinates to the "B4" view that is used by users
+     */
+    static String toString(int x, int y) {
+        return columnName(x) + (y + 1);
+    }
+
+    /**
+     * Letters of the column like in spreadsheets: A..Z, then AA, AB and so on for big fields
+     */
+    static String columnName(int x) {
+        StringBuilder result = new StringBuilder(2);
+        for (int n = x + 1; n > 0; n = (n - 1) / 26) {
+            result.insert(0, (char) ('A' + (n - 1) % 26));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Converts letters of the column back to X. Returns -1 if there are not only letters from A to Z.
+     */
+    static int parseColumn(String letters) {
+        if (letters.isEmpty()) return -1;
+        int result = 0;
+        for (int i = 0; i < letters.length(); i++) {
+            char c = letters.charAt(i);
+            if (c < 'A' || c > 'Z' || result > GameConfig.MAX_SIDE) return -1;
+            result = result * 26 + (c - 'A' + 1);
+        }
+        return result - 1;
+    }
+}
@@ -0,0 +1,335 @@
+package battleship;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Strategy that shoots where enemy's ships most probably are.
+ *
+ * It keeps the list of every possible placement of every ship (for the classic field 10x10 there are 580 of them)
+ * and counts for each cell how many still possible placements are covering it.
+ * While there are no wounded ships ("hunt" mode) it shoots at the cell covered by the biggest number
+ * of placements of remaining ships. When some ship is wounded ("target" mode) it shoots only at cells
+ * of those placements that are going through wounded decks.
+ *
+ * After every shoot only placements going through the changed cells are updated,
+ * so choosing the next cell never allocates anything and costs a few additions per cell.
+ * Lists of placements are built once for every size of the field and shared by all strategies.
+ */
+class DensityShotStrategy implements ShotStrategy {
+    private static final ConcurrentHashMap<Long, Placements> PLACEMENTS = new ConcurrentHashMap<>();
+
+    /**
+     * Cell states as computer sees them
+     */
+    private static final byte UNKNOWN = 0;
+    private static final byte EMPTY = 1;
+    private static final byte WOUNDED = 2;
+    private static final byte KILLED = 3;
+
+    /**
+     * Every possible placement of ships up to some length at the field of some size.
+     * Every placement is stored as first cell, length and step between cells (1 by X or width by Y).
+     */
+    private static final class Placements {
+        final int width;
+        final int height;
+        final int maxLength;
+        final int[] start;
+        final int[] length;
+        final int[] step;
+
+        /**
+         * Indexes of placements that are covering each cell
+         */
+        final int[][] cellPlacements;
+
+        Placements(int width, int height, int maxLength) {
+            this.width = width;
+            this.height = height;
+            this.maxLength = maxLength;
+            int size = width * height;
+            int count = 0;
+            for (int l = 1; l <= maxLength; l++) {
+                if (l <= width) count += (width - l + 1) * height;
+                if (l > 1 && l <= height) count += (height - l + 1) * width;
+            }
+            start = new int[count];
+            length = new int[count];
+            step = new int[count];
+
+            int[] perCell = new int[size];
+            int p = 0;
+            for (int l = 1; l <= maxLength; l++) {
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        if (x + l <= width) p = add(p, y * width + x, l, 1, perCell);
+                        if (l > 1 && y + l <= height) p = add(p, y * width + x, l, width, perCell);
+                    }
+                }
+            }
+
+            cellPlacements = new int[size][];
+            for (int cell = 0; cell < size; cell++) {
+                cellPlacements[cell] = new int[perCell[cell]];
+                perCell[cell] = 0;
+            }
+            for (p = 0; p < count; p++) {
+                for (int i = 0, cell = start[p]; i < length[p]; i++, cell += step[p]) {
+                    cellPlacements[cell][perCell[cell]++] = p;
+                }
+            }
+        }
+
+        private int add(int p, int first, int l, int s, int[] perCell) {
+            start[p] = first;
+            length[p] = l;
+            step[p] = s;
+            for (int i = 0, cell = first; i < l; i++, cell += s) {
+                perCell[cell]++;
+            }
+            return p + 1;
+        }
+
+        static Placements of(GameConfig config) {
+            long key = (long) config.getWidth() << 32 | (long) config.getHeight() << 8 | config.getMaxDecks();
+            return PLACEMENTS.computeIfAbsent(key, k -> new Placements(config.getWidth(), config.getHeight(), config.getMaxDecks()));
+        }
+    }
+
+    /**
+     * Everything below is created when the strategy sees the enemy's field for the first time
+     */
+    private Placements placements;
+    private int width;
+    private int size;
+    private byte[] cells;
+    private boolean[] impossible;
+
+    /**
+     * The number of still possible placements covering the cell: [ship length][cell]
+     */
+    private int[][] coverage;
+
+    /**
+     * How many ships of each length are still alive
+     */
+    private int[] remaining;
+
+    /**
+     * Wounded but not killed decks
+     */
+    private int[] wounded;
+    private int woundedCount = 0;
+
+    /**
+     * Scores of cells in target mode. Reused between shoots.
+     */
+    private int[] scores;
+
+    private void init(GameConfig config) {
+        placements = Placements.of(config);
+        width = config.getWidth();
+        size = config.getCellsNumber();
+        cells = new byte[size];
+        impossible = new boolean[placements.start.length];
+        coverage = new int[placements.maxLength + 1][size];
+        remaining = new int[placements.maxLength + 1];
+        for (int length = 1; length <= placements.maxLength; length++) {
+            remaining[length] = config.getShipsNumber(length);
+        }
+        wounded = new int[Math.min(size, config.getDecksNumber())];
+        scores = new int[size];
+        for (int p = 0; p < placements.start.length; p++) {
+            for (int i = 0, cell = placements.start[p]; i < placements.length[p]; i++, cell += placements.step[p]) {
+                coverage[placements.length[p]][cell]++;
+            }
+        }
+    }
+
+    @Override
+    public void start(BoardView enemy) {
+        if (placements == null) init(enemy.getConfig());
+    }
+
+    @Override
+    public int nextShot(BoardView enemy, SplittableRandom random) {
+        start(enemy);
+        int cell = woundedCount > 0 ? target(random) : -1;
+        if (cell < 0) cell = hunt(random);
+        return Coordinates.pack(cell % width, cell / width);
+    }
+
+    /**
+     * Chooses unknown cell with the biggest number of possible placements of remaining ships.
+     * Equal cells are chosen randomly.
+     */
+    private int hunt(SplittableRandom random) {
+        int best = -1;
+        int bestScore = -1;
+        int ties = 0;
+        for (int cell = 0; cell < size; cell++) {
+            if (cells[cell] != UNKNOWN) continue;
+            int score = 0;
+            for (int length = 1; length <= placements.maxLength; length++) {
+                score += remaining[length] * coverage[length][cell];
+            }
+            if (score > bestScore) {
+                best = cell;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores unknown cells by the number of possible placements going through wounded decks.
+     * Placements through several wounded decks are counted for each of them.
+     * Returns -1 if there are no such cells.
+     */
+    private int target(SplittableRandom random) {
+        int best = -1;
+        int bestScore = 0;
+        int ties = 0;
+        for (int i = 0; i < woundedCount; i++) {
+            for (int p : placements.cellPlacements[wounded[i]]) {
+                int length = placements.length[p];
+                if (impossible[p] || length == 1 || remaining[length] == 0) continue;
+                for (int j = 0, cell = placements.start[p]; j < length; j++, cell += placements.step[p]) {
+                    if (cells[cell] == UNKNOWN) scores[cell] += remaining[length];
+                }
+            }
+        }
+
+        // only cells of placements through wounded decks could have scores, so the whole field is not scanned
+        for (int i = 0; i < woundedCount; i++) {
+            for (int p : placements.cellPlacements[wounded[i]]) {
+                for (int j = 0, cell = placements.start[p]; j < placements.length[p]; j++, cell += placements.step[p]) {
+                    int score = scores[cell];
+                    if (score == 0) continue;
+                    scores[cell] = 0;
+                    if (score > bestScore) {
+                        best = cell;
+                        bestScore = score;
+                        ties = 1;
+                    } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                        best = cell;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void shotResult(int coordinates, int result) {
+        int cell = Coordinates.y(coordinates) * width + Coordinates.x(coordinates);
+        switch (result) {
+            case 0:
+                block(cell, EMPTY);
+                break;
+            case 1:
+                wound(cell);
+                break;
+            case 2:
+                wound(cell);
+                kill(cell);
+                break;
+            default:
+                // strategy never shoots twice at the same cell, but let's just remember it's not a ship
+                if (cells[cell] == UNKNOWN) block(cell, EMPTY);
+        }
+    }
+
+    /**
+     * Remembers wounded deck. Ships can't touch each other, so diagonal cells can't have ships.
+     * Also there can't be a single-deck ship here because it would be killed.
+     */
+    private void wound(int cell) {
+        cells[cell] = WOUNDED;
+        if (woundedCount < wounded.length) wounded[woundedCount++] = cell;
+        for (int p : placements.cellPlacements[cell]) {
+            if (placements.length[p] == 1) invalidate(p);
+        }
+        int x = cell % width;
+        int y = cell / width;
+        for (int dy = -1; dy <= 1; dy += 2) {
+            for (int dx = -1; dx <= 1; dx += 2) {
+                int nx = x + dx;
+                int ny = y + dy;
+                if (nx >= 0 && nx < width && ny >= 0 && ny < placements.height) {
+                    int neighbour = ny * width + nx;
+                    if (cells[neighbour] == UNKNOWN) block(neighbour, EMPTY);
+                }
+            }
+        }
+    }
+
+    /**
+     * All wounded decks connected with the last shooted one are the killed ship.
+     * They and every cell around them are not available for other ships anymore.
+     */
+    private void kill(int cell) {
+        int length = 0;
+        int step = 1;
+        if (isWounded(cell + width) || isWounded(cell - width)) step = width;
+        int first = cell;
+        while (isWounded(first - step) && (step != 1 || first % width != 0)) {
+            first -= step;
+        }
+        for (int deck = first; isWounded(deck); deck += step) {
+            block(deck, KILLED);
+            surround(deck);
+            removeWounded(deck);
+            length++;
+            if (step == 1 && (deck + 1) % width == 0) break;
+        }
+        if (length <= placements.maxLength && remaining[length] > 0) remaining[length]--;
+    }
+
+    private boolean isWounded(int cell) {
+        return cell >= 0 && cell < size && cells[cell] == WOUNDED;
+    }
+
+    private void surround(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        for (int ny = Math.max(0, y - 1); ny <= Math.min(placements.height - 1, y + 1); ny++) {
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                int neighbour = ny * width + nx;
+                if (cells[neighbour] == UNKNOWN) block(neighbour, EMPTY);
+            }
+        }
+    }
+
+    private void removeWounded(int cell) {
+        for (int i = 0; i < woundedCount; i++) {
+            if (wounded[i] == cell) {
+                wounded[i] = wounded[--woundedCount];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Marks the cell as not available for remaining ships and drops every placement going through it.
+     */
+    private void block(int cell, byte state) {
+        cells[cell] = state;
+        for (int p : placements.cellPlacements[cell]) {
+            invalidate(p);
+        }
+    }
+
+    private void invalidate(int p) {
+        if (impossible[p]) return;
+        impossible[p] = true;
+        int length = placements.length[p];
+        for (int i = 0, cell = placements.start[p]; i < length; i++, cell += placements.step[p]) {
+            coverage[length][cell]--;
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package battleship;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class will be responsible for controlling each field's logic.
@@ -10,7 +9,21 @@ import java.util.Map;
  * so this class have both methods for 2 different kinds of logic.
  * I will try to split computer's logic and UI's one at 2 different classes... But it will be here now for some time :)
  */
-class Field {
+class Field implements BoardView {
+    /**
+     * Gets every shoot at the field, for example to record the game
+     */
+    interface ShotListener {
+        /**
+         * Result is the same as {@link Field#checkDeckAtField(int, int)} returns
+         */
+        void shot(Field field, int x, int y, int result);
+    }
+
+    private final GameConfig config;
+    private final int width;
+    private final int height;
+
     /**
      * How not empty cells (with ships) will look
      */
@@ -33,26 +46,167 @@ class Field {
     private static final char hitedSign = 'X';
 
     /**
-     * Battlefield initialisation
+     * Calls of {@link #putShip} at all fields and those of them that were refused
      */
-    private final char[][] field = new char[10][10];
+    private static final LongAdder placements = Metrics.getInstance().counter("placements.attempted");
+    private static final LongAdder rejectedPlacements = Metrics.getInstance().counter("placements.rejected");
 
     /**
-     * Every ship instance with it's coordinates
+     * Cells occupied by ships
      */
-    private final HashMap<Ship, String> ships = new HashMap<>(10);
+    private final BitBoard shipCells;
 
     /**
-     * Default and the only one constructor.
-     * The only thing it doing is filling every cells with "-" sign for easier ships placement planning.
+     * Cells with hited ships/decks. It is always a subset of {@code shipCells}.
      */
-    Field() {
-        // TODO add getting symbols like . * O X from properties
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                field[i][j] = emptyCell;
+    private final BitBoard hitCells;
+
+    /**
+     * Cells that were shooted but there were no ships there (and also dots around ships)
+     */
+    private final BitBoard missedCells;
+
+    /**
+     * Cells where new ships can't be placed: ships and every cell around them.
+     * Unlike dots in {@code missedCells} it isn't cleared after the placement.
+     */
+    private final BitBoard occupiedCells;
+
+    /**
+     * Cells nobody shoot at yet (by index in bit sets) in no particular order: the first {@code availableCells} of them.
+     * Shooted cell is swapped with the last available one, so it is removed without a scan
+     * and a random available cell is just a random index. The rest of the array keeps shooted cells.
+     */
+    private final int[] freeCells;
+
+    /**
+     * Position of every cell in {@code freeCells}
+     */
+    private final int[] freePosition;
+    private int availableCells;
+
+    /**
+     * Every ship instance placed at this field. The index of the ship here is its "slot".
+     */
+    private Ship[] ships;
+
+    /**
+     * Packed placement of every ship (by slot), see {@link Coordinates#packPlacement(int, int, int, boolean)}.
+     * Cells around it will be filled with dots when the ship will be killed.
+     */
+    private int[] shipPlacements;
+
+    /**
+     * Index of the ship occupying each cell: slot + 1, or 0 if there is no ship in the cell
+     */
+    private final int[] shipAtCell;
+
+    /**
+     * The number of placed ships
+     */
+    private int shipsPlaced = 0;
+
+    /**
+     * The number of ships that are still alive
+     */
+    private int shipsAlive = 0;
+
+    private ShotListener shotListener = null;
+
+    /**
+     * Zobrist hashes of the whole field and of what the enemy could see (misses, dots and hited decks).
+     * The full hash has a key for every set bit of ship, hit and missed cells, so it is the observer's hash
+     * plus keys of ships.
+     */
+    private long hash = 0;
+    private long observerHash = 0;
+
+    /**
+     * What enemy could see at this field: the same but without ships
+     */
+    private final BoardView observerView = new BoardView() {
+        @Override
+        public int getWidth() {
+            return Field.this.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return Field.this.getHeight();
+        }
+
+        @Override
+        public int getCellState(int x, int y) {
+            int state = Field.this.getCellState(x, y);
+            return state == SHIP ? EMPTY : state;
+        }
+
+        @Override
+        public boolean isAvailableForShoot(int x, int y) {
+            return Field.this.isAvailableForShoot(x, y);
+        }
+
+        @Override
+        public boolean canPlaceShip(int x, int y, int numberOfDecks, boolean xDirection) {
+            if (!fits(x, y, numberOfDecks, xDirection)) return false;
+            for (int i = 0; i < numberOfDecks; i++) {
+                if (xDirection ? !isAvailableForShoot(x + i, y) : !isAvailableForShoot(x, y + i)) return false;
             }
+            return true;
+        }
+
+        @Override
+        public int getShipsNumber() {
+            return Field.this.getShipsNumber();
+        }
+
+        @Override
+        public GameConfig getConfig() {
+            return config;
+        }
+
+        @Override
+        public int getAvailableCellsNumber() {
+            return availableCells;
+        }
+
+        @Override
+        public int getAvailableCell(int number) {
+            return Field.this.getAvailableCell(number);
         }
+
+        @Override
+        public long getPositionHash() {
+            return observerHash;
+        }
+    };
+
+    /**
+     * Creates the classic field 10x10.
+     */
+    Field() {
+        this(GameConfig.CLASSIC);
+    }
+
+    /**
+     * Every cell is empty right after creation so there is nothing to fill.
+     */
+    Field(GameConfig config) {
+        // TODO add getting symbols like . * O X from properties
+        this.config = config;
+        this.width = config.getWidth();
+        this.height = config.getHeight();
+        int size = config.getCellsNumber();
+        shipCells = new BitBoard(size);
+        hitCells = new BitBoard(size);
+        missedCells = new BitBoard(size);
+        occupiedCells = new BitBoard(size);
+        shipAtCell = new int[size];
+        freeCells = new int[size];
+        freePosition = new int[size];
+        ships = new Ship[config.getShipsNumber()];
+        shipPlacements = new int[config.getShipsNumber()];
+        resetAvailable();
     }
 
     /**
@@ -60,8 +214,10 @@ class Field {
      * Method takes the index of field's row to return.
      */
     char[] getLine(int row) {
-        char[] result = new char[field[row].length];
-        System.arraycopy(field[row], 0, result, 0, result.length);
+        char[] result = new char[width];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getCell(i, row);
+        }
         return result;
     }
 
@@ -83,15 +239,175 @@ class Field {
      * Clears field. Filling every "empty" cell with an "emptyCell" sign;
      */
     void clear() {
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                if (field[i][j] != filledCell) field[i][j] = emptyCell;
-            }
+        hitCells.clear();
+        missedCells.clear();
+        hash ^= observerHash;
+        observerHash = 0;
+        resetAvailable();
+    }
+
+    private void resetAvailable() {
+        for (int cell = 0; cell < freeCells.length; cell++) {
+            freeCells[cell] = cell;
+            freePosition[cell] = cell;
         }
+        availableCells = freeCells.length;
+    }
+
+    /**
+     * Removes the cell from available ones by swapping it with the last available cell
+     */
+    private void removeAvailable(int cell) {
+        int position = freePosition[cell];
+        int last = freeCells[--availableCells];
+        freeCells[position] = last;
+        freePosition[last] = position;
+        freeCells[availableCells] = cell;
+        freePosition[cell] = availableCells;
+    }
+
+    /**
+     * Removes everything from the field including ships, so it could be filled again.
+     */
+    void reset() {
+        clear();
+        shipCells.clear();
+        occupiedCells.clear();
+        Arrays.fill(shipAtCell, 0);
+        hash = 0;
+        Arrays.fill(ships, 0, shipsPlaced, null);
+        shipsPlaced = 0;
+        shipsAlive = 0;
     }
 
     char getCell(int x, int y) {
-        return field[y][x];
+        int cell = index(x, y);
+        if (hitCells.get(cell)) return hitedSign;
+        if (shipCells.get(cell)) return filledCell;
+        if (missedCells.get(cell)) return missedSign;
+        return emptyCell;
+    }
+
+    /**
+     * Returns the view of this field without ships, as the enemy sees it.
+     */
+    BoardView getObserverView() {
+        return observerView;
+    }
+
+    /**
+     * Index of the cell in bit sets
+     */
+    private int index(int x, int y) {
+        return y * width + x;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getCellState(int x, int y) {
+        int cell = index(x, y);
+        if (hitCells.get(cell)) return HIT;
+        if (shipCells.get(cell)) return SHIP;
+        if (missedCells.get(cell)) return MISSED;
+        return EMPTY;
+    }
+
+    @Override
+    public boolean isAvailableForShoot(int x, int y) {
+        int cell = index(x, y);
+        return !hitCells.get(cell) && !missedCells.get(cell);
+    }
+
+    @Override
+    public boolean canPlaceShip(int x, int y, int numberOfDecks, boolean xDirection) {
+        return fits(x, y, numberOfDecks, xDirection) && isFree(occupiedCells, x, y, numberOfDecks, xDirection);
+    }
+
+    @Override
+    public GameConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public long getPositionHash() {
+        return hash;
+    }
+
+    @Override
+    public int getAvailableCellsNumber() {
+        return availableCells;
+    }
+
+    @Override
+    public int getAvailableCell(int number) {
+        if (number < 0 || number >= availableCells) throw new IndexOutOfBoundsException("There is no available cell #" + number);
+        int cell = freeCells[number];
+        return Coordinates.pack(cell % width, cell / width);
+    }
+
+    /**
+     * Checks if the ship is inside the field
+     */
+    private boolean fits(int x, int y, int numberOfDecks, boolean xDirection) {
+        if (x < 0 || y < 0 || numberOfDecks < 1) return false;
+        if (xDirection) return x + numberOfDecks <= width && y < height;
+        return x < width && y + numberOfDecks <= height;
+    }
+
+    /**
+     * Checks that there are no cells of the set under the ship.
+     * Ships by X are a range in one row, ships by Y - a cell in every row they take.
+     */
+    private boolean isFree(BitBoard cells, int x, int y, int numberOfDecks, boolean xDirection) {
+        if (xDirection) return cells.isRangeClear(index(x, y), index(x + numberOfDecks, y));
+        for (int j = y; j < y + numberOfDecks; j++) {
+            if (cells.get(index(x, j))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that there are no cells of the set under the ship and around it
+     */
+    private boolean isFreeAround(BitBoard cells, int placement) {
+        int fromX = Math.max(0, Coordinates.placementX(placement) - 1);
+        int toX = Math.min(width, Coordinates.placementEndX(placement) + 2);
+        int toY = Math.min(height - 1, Coordinates.placementEndY(placement) + 1);
+        for (int j = Math.max(0, Coordinates.placementY(placement) - 1); j <= toY; j++) {
+            if (!cells.isRangeClear(index(fromX, j), index(toX, j))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fills every empty cell around the ship (and under it, but there are decks) with dots.
+     * Dotted cells are not available for shoot anymore.
+     */
+    private void surround(int placement) {
+        int fromX = Math.max(0, Coordinates.placementX(placement) - 1);
+        int toX = Math.min(width, Coordinates.placementEndX(placement) + 2);
+        int toY = Math.min(height - 1, Coordinates.placementEndY(placement) + 1);
+        for (int j = Math.max(0, Coordinates.placementY(placement) - 1); j <= toY; j++) {
+            int from = index(fromX, j);
+            int to = index(toX, j);
+            occupiedCells.setRange(from, to);
+            for (int cell = from; cell < to; cell++) {
+                // ship cells are skipped, so new dots were available (every hit is a ship cell)
+                if (shipCells.get(cell) || missedCells.get(cell)) continue;
+                missedCells.set(cell);
+                changeSeen(MISSED, cell);
+                removeAvailable(cell);
+            }
+        }
     }
 
     /**
@@ -103,9 +419,25 @@ class Field {
      * If coordinates are wrong - it will @throw ShipPlacementException with a short reason message in it.
      */
     boolean putShip(int startX, int startY, int numberOfDecks, int endX, int endY) throws ShipPlacementException {
-        if (startX > 9 || startY > 9 || endX > 9 || endY > 9) throw new ShipPlacementException("Coordinates out of range");
+        GameEvents.ShipPlacement event = new GameEvents.ShipPlacement();
+        event.start();
+        try {
+            placeShip(startX, startY, numberOfDecks, endX, endY);
+        } catch (ShipPlacementException e) {
+            event.finish(startX, startY, numberOfDecks, endX, endY, e.getMessage());
+            throw e;
+        }
+        event.finish(startX, startY, numberOfDecks, endX, endY, null);
+        return true;
+    }
+
+    private void placeShip(int startX, int startY, int numberOfDecks, int endX, int endY) throws ShipPlacementException {
+        placements.increment();
+        if (startX >= width || startY >= height || endX >= width || endY >= height) {
+            throw rejected("Coordinates out of range");
+        }
         if (Math.abs(startX - endX) != numberOfDecks ^ Math.abs(startY - endY) != numberOfDecks) {
-            throw new ShipPlacementException("Wrong size");
+            throw rejected("Wrong size");
         }
 
         boolean xDirection = false;
@@ -113,44 +445,16 @@ class Field {
         if (startX == endX) yDirection = true;
         if (startY == endY) xDirection = true;
 
-        if (xDirection && yDirection) throw new ShipPlacementException("Not single-deck");
-        else if (!xDirection && !yDirection) throw new ShipPlacementException("Wrong placement");
+        if (xDirection && yDirection) throw rejected("Not single-deck");
+        else if (!xDirection && !yDirection) throw rejected("Wrong placement");
         else {
-            int startCell;
-            int endCell;
-
-            if (xDirection) {
-                startCell = Math.min(startX, endX);
-                endCell = startCell + numberOfDecks;
-            } else {
-                startCell = Math.min(startY, endY);
-                endCell = startCell + numberOfDecks;
-            }
-
-            /**
-             * Checking by every deck before filling field
-             */
-            for (int i = startCell; i < endCell; i++) {
-                if (xDirection) checkIfCloseByXY(i, startY);
-                else checkIfCloseByXY(startX, i);
-            }
-
-            /**
-             * Adding new ship to list and filling field with dots and 8's
-             */
-            Ship ship = new Ship(Math.min(startX, endX), Math.min(startY, endY), numberOfDecks, Math.max(startX, endX), Math.max(startY, endY));
-            int[][] coordinates = ship.getCoordinates();
-            StringBuilder sb = new StringBuilder();
-            for (int i = 0; i < numberOfDecks; i++) {
-                int x = coordinates[i][0];
-                int y = coordinates[i][1];
-                sb.append("(").append(x).append(",").append(y).append(")");
-                field[y][x] = filledCell;
-                surroundWithDots(x, y);
-            }
-            ships.put(ship, sb.toString());
+            int x = Math.min(startX, endX);
+            int y = Math.min(startY, endY);
+            if (!fits(x, y, numberOfDecks, xDirection)) throw rejected("Coordinates out of range");
+            int placement = Coordinates.packPlacement(x, y, numberOfDecks, xDirection);
+            checkIfCloseBy(placement);
+            addShip(new Ship(x, y, numberOfDecks, Math.max(startX, endX), Math.max(startY, endY)), placement);
         }
-        return true;
     }
 
     /**
@@ -160,100 +464,162 @@ class Field {
      * If coordinates are wrong - it will @throw ShipPlacementException with a short reason message in it.
      */
     boolean putShip(int x, int y) throws ShipPlacementException {
-        checkIfCloseByXY(x, y);
-        Ship ship = new Ship(x, y);
-        ships.put(ship, "(" + x + "," + y + ")");
-        this.field[y][x] = filledCell;
-        surroundWithDots(x, y);
+        GameEvents.ShipPlacement event = new GameEvents.ShipPlacement();
+        event.start();
+        try {
+            placeShip(x, y);
+        } catch (ShipPlacementException e) {
+            event.finish(x, y, 1, x, y, e.getMessage());
+            throw e;
+        }
+        event.finish(x, y, 1, x, y, null);
         return true;
     }
 
+    private void placeShip(int x, int y) throws ShipPlacementException {
+        placements.increment();
+        if (!fits(x, y, 1, true)) throw rejected("Coordinates out of range");
+        int placement = Coordinates.packPlacement(x, y, 1, true);
+        checkIfCloseBy(placement);
+        addShip(new Ship(x, y), placement);
+    }
+
     /**
-     * Checking if there any other ships close to that one you're trying to put.
-     * Returns nothing except new exceptions for you to work with :)
+     * Saves the ship in the first free slot, marks its cells and surrounds it with dots.
      */
-    private void checkIfCloseByXY(int x, int y) throws ShipPlacementException {
-        ShipPlacementException e = new ShipPlacementException("Too close to other ships");
-        if (x > 0) {
-            if (y - 1 >= 0 && this.field[y - 1][x - 1] == filledCell) throw e;
-            if (this.field[y][x - 1] == filledCell) throw e;
-            if (y + 1 < 10 && this.field[y + 1][x - 1] == filledCell) throw e;
+    private void addShip(Ship ship, int placement) {
+        if (shipsPlaced == ships.length) {
+            ships = Arrays.copyOf(ships, Math.max(1, shipsPlaced * 2));
+            shipPlacements = Arrays.copyOf(shipPlacements, ships.length);
         }
-        if (x < 9) {
-            if (y - 1 >= 0 && this.field[y - 1][x + 1] == filledCell) throw e;
-            if (this.field[y][x + 1] == filledCell) throw e;
-            if (y + 1 < 10 && this.field[y + 1][x + 1] == filledCell) throw e;
+        int slot = shipsPlaced++;
+        ships[slot] = ship;
+        shipPlacements[slot] = placement;
+        shipsAlive++;
+
+        int x = Coordinates.placementX(placement);
+        int y = Coordinates.placementY(placement);
+        int numberOfDecks = Coordinates.placementDecks(placement);
+        boolean xDirection = Coordinates.placementByX(placement);
+        int step = xDirection ? 1 : width;
+        for (int i = 0, cell = index(x, y); i < numberOfDecks; i++, cell += step) {
+            shipCells.set(cell);
+            hash ^= Zobrist.key(SHIP, cell);
+            shipAtCell[cell] = slot + 1;
         }
-        if (y - 1 >= 0 && this.field[y - 1][x] == filledCell) throw e;
-        if (this.field[y][x] == filledCell) throw new ShipPlacementException("Cell isn't empty");
-        if (y + 1 < 10 && this.field[y + 1][x] == filledCell) throw e;
+        surround(placement);
     }
 
     /**
-     * Draws dots around some coordinates that it takes. Draws only in empty cells.
+     * Checking if there any other ships at the cells of the placement or close to them.
+     * Returns nothing except new exceptions for you to work with :)
      */
-    private void surroundWithDots(int x, int y) {
-        if (x > 0) {
-            if (y - 1 >= 0 && this.field[y - 1][x - 1] != filledCell && this.field[y - 1][x - 1] != hitedSign) this.field[y - 1][x - 1] = missedSign;
-            if (this.field[y][x - 1] != filledCell && this.field[y][x - 1] != hitedSign) this.field[y][x - 1] = missedSign;
-            if (y + 1 < 10 && this.field[y + 1][x - 1] != filledCell && this.field[y + 1][x - 1] != hitedSign) this.field[y + 1][x - 1] = missedSign;
+    private void checkIfCloseBy(int placement) throws ShipPlacementException {
+        if (!isFree(shipCells, Coordinates.placementX(placement), Coordinates.placementY(placement),
+                Coordinates.placementDecks(placement), Coordinates.placementByX(placement))) {
+            throw rejected("Cell isn't empty");
         }
-        if (x < 9) {
-            if (y - 1 >= 0 && this.field[y - 1][x + 1] != filledCell && this.field[y - 1][x + 1] != hitedSign) this.field[y - 1][x + 1] = missedSign;
-            if (this.field[y][x + 1] != filledCell && this.field[y][x + 1] != hitedSign) this.field[y][x + 1] = missedSign;
-            if (y + 1 < 10 && this.field[y + 1][x + 1] != filledCell && this.field[y + 1][x + 1] != hitedSign) this.field[y + 1][x + 1] = missedSign;
-        }
-        if (y - 1 >= 0 && this.field[y - 1][x] != filledCell && this.field[y - 1][x] != hitedSign) this.field[y - 1][x] = missedSign;
-        if (y + 1 < 10 && this.field[y + 1][x] != filledCell && this.field[y + 1][x] != hitedSign) this.field[y + 1][x] = missedSign;
+        if (!isFreeAround(shipCells, placement)) throw rejected("Too close to other ships");
+    }
 
+    /**
+     * Counts the refused placement and returns the exception with the reason to throw
+     */
+    private static ShipPlacementException rejected(String reason) {
+        rejectedPlacements.increment();
+        return new ShipPlacementException(reason);
     }
 
-    int getShipsNumber() {
-        return ships.size();
+    /**
+     * Counts the placement that was refused before {@link #putShip} was called, like those that are checked
+     * by {@link #canPlaceShip(int, int, int, boolean)} first
+     */
+    static void placementRefused() {
+        placements.increment();
+        rejectedPlacements.increment();
     }
 
+    @Override
+    public int getShipsNumber() {
+        return shipsAlive;
+    }
+
+    /**
+     * Returns coordinates of every cell nobody shoot at yet in no particular order
+     */
     int[][] getEmptyCells() {
-        ArrayList<int[]> list = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            for (int j = 0; j < 10; j++) {
-                if (field[j][i] == emptyCell || field[j][i] == filledCell) list.add(new int[]{i, j});
-            }
+        int[][] result = new int[availableCells][];
+        for (int i = 0; i < availableCells; i++) {
+            result[i] = new int[]{freeCells[i] % width, freeCells[i] / width};
         }
-        int[][] result = new int[list.size()][2];
-        list.toArray(result);
         return result;
     }
 
+    /**
+     * Sets who gets every shoot at this field, null to stop notifying
+     */
+    void setShotListener(ShotListener listener) {
+        shotListener = listener;
+    }
+
+    /**
+     * The number of ships placed at the field including killed ones
+     */
+    int getPlacedShipsNumber() {
+        return shipsPlaced;
+    }
+
+    /**
+     * Returns packed placement of the ship by its slot from 0 to {@link #getPlacedShipsNumber()},
+     * see {@link Coordinates#packPlacement(int, int, int, boolean)}
+     */
+    int getShipPlacement(int slot) {
+        return shipPlacements[slot];
+    }
+
+    /**
+     * Shoots at the cell. Returns -1 if somebody shoot here already, 0 if missed, 1 if hit and 2 if the ship was killed.
+     */
     int checkDeckAtField(int x, int y) {
-        if (field[y][x] == filledCell) {
+        GameEvents.Shot event = new GameEvents.Shot();
+        event.start();
+        int result = shoot(x, y);
+        event.finish(x, y, result);
+        if (shotListener != null) shotListener.shot(this, x, y, result);
+        return result;
+    }
+
+    private int shoot(int x, int y) {
+        int cell = index(x, y);
+        if (hitCells.get(cell) || missedCells.get(cell)) return -1;   // Already
+        if (shipCells.get(cell)) {
             // hit
-            field[y][x] = hitedSign;
-            HashMap<Ship, String> copy = new HashMap<>(ships);
-            for (Map.Entry<Ship, String> entry : copy.entrySet()) {
-                if (entry.getValue().contains(String.valueOf(x) + "," + String.valueOf(y))) {
-                    Ship ship = entry.getKey();
-                    ship.hit();
-                    if (!ship.isAlive()) {
-                        boolean stop = false;
-                        String s = entry.getValue();
-                        do {
-                            if (s.length() > 4) {
-                                int i = Integer.parseInt(String.valueOf(s.charAt(1)));
-                                int j = Integer.parseInt(String.valueOf(s.charAt(3)));
-                                surroundWithDots(i, j);
-                                s = s.substring(5);
-                            } else stop = true;
-                        } while(!stop);
-                        ships.remove(entry.getKey());
-                        return 2;
-                    }
-                }
+            hitCells.set(cell);
+            changeSeen(HIT, cell);
+            removeAvailable(cell);
+            int slot = shipAtCell[cell] - 1;
+            Ship ship = ships[slot];
+            ship.hit();
+            if (!ship.isAlive()) {
+                surround(shipPlacements[slot]);
+                shipsAlive--;
+                return 2;
             }
             return 1;
-        } else if (field[y][x] == emptyCell) {
-            // miss
-            field[y][x] = missedSign;
-            return 0;
-        } else return -1;   // Already
+        }
+        // miss
+        missedCells.set(cell);
+        changeSeen(MISSED, cell);
+        removeAvailable(cell);
+        return 0;
+    }
+
+    /**
+     * Updates both hashes when the cell becomes missed or hited
+     */
+    private void changeSeen(int state, int cell) {
+        long key = Zobrist.key(state, cell);
+        hash ^= key;
+        observerHash ^= key;
     }
 }
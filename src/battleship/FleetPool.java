@@ -0,0 +1,154 @@
+package battleship;
+
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Random fleets placed in advance, so a new game doesn't wait for the placement of computer's ships.
+ *
+ * Every pool keeps up to some number of fields with ships of one config. {@link #take()} gives the ready one
+ * and asks the shared executor to place one more in the background. If the pool is empty the fleet is placed
+ * by the executor too, so the calling thread never places ships itself.
+ * The executor is shared by all pools and has one daemon thread per processor (Java 17 has no virtual threads).
+ *
+ * The player copies ships from the field with {@link Player#placeFleet(Field)}.
+ * Fleets are random from the generator of the pool, so they are not reproducible by the seed of the game.
+ */
+final class FleetPool {
+    private static final Logger log = Logger.getInstance();
+    private static final int DEFAULT_CAPACITY = Integer.getInteger("battleship.fleets.pool", 32);
+    private static final ConcurrentHashMap<GameConfig, FleetPool> POOLS = new ConcurrentHashMap<>();
+    private static final ExecutorService PLACERS;
+
+    static {
+        AtomicInteger threads = new AtomicInteger();
+        PLACERS = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "Fleet placer " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final GameConfig config;
+    private final int capacity;
+    private final Queue<Field> ready = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Fleets that are ready or being placed, so the pool is not refilled over its capacity
+     */
+    private final AtomicInteger planned = new AtomicInteger();
+    private final SplittableRandom random = new SplittableRandom();
+
+    FleetPool(GameConfig config, int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity can't be negative: " + capacity);
+        this.config = config;
+        this.capacity = capacity;
+        refill();
+    }
+
+    /**
+     * The pool shared by all games with the config. Its size is taken from "battleship.fleets.pool" property.
+     */
+    static FleetPool forConfig(GameConfig config) {
+        return POOLS.computeIfAbsent(config, c -> new FleetPool(c, DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Places the whole fleet at a new field in the shared executor
+     */
+    static CompletableFuture<Field> placeAsync(GameConfig config, SplittableRandom random) {
+        return CompletableFuture.supplyAsync(() -> place(config, random), PLACERS);
+    }
+
+    /**
+     * Places every ship of the config randomly, starting from the scratch if there is no room for some ship.
+     * Dots around ships are cleared, so the field is ready for the game.
+     */
+    static Field place(GameConfig config, SplittableRandom random) {
+        Field field = new Field(config);
+        PlacementStrategy strategy = new LegalPlacementStrategy();
+        boolean placed;
+        do {
+            field.reset();
+            placed = true;
+            for (int decks = config.getMaxDecks(); decks > 0 && placed; decks--) {
+                for (int i = 0; i < config.getShipsNumber(decks) && placed; i++) {
+                    int placement = strategy.nextPlacement(field, decks, random);
+                    placed = placement >= 0;
+                    if (placed) put(field, placement);
+                }
+            }
+        } while (!placed);
+        field.clear();
+        return field;
+    }
+
+    private static void put(Field field, int placement) {
+        int x = Coordinates.placementX(placement);
+        int y = Coordinates.placementY(placement);
+        int decks = Coordinates.placementDecks(placement);
+        try {
+            if (decks == 1) field.putShip(x, y);
+            else field.putShip(x, y, decks, Coordinates.placementEndX(placement), Coordinates.placementEndY(placement));
+        } catch (ShipPlacementException e) {
+            throw new IllegalStateException("Legal placement was refused: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the ready fleet (the future is completed already) or the one that is being placed right now
+     */
+    CompletableFuture<Field> take() {
+        Field field = ready.poll();
+        CompletableFuture<Field> result;
+        if (field != null) {
+            planned.decrementAndGet();
+            result = CompletableFuture.completedFuture(field);
+        } else {
+            result = placeAsync(config, split());
+        }
+        refill();
+        return result;
+    }
+
+    /**
+     * The number of fleets that are ready right now
+     */
+    int size() {
+        return ready.size();
+    }
+
+    private void refill() {
+        while (true) {
+            int count = planned.get();
+            if (count >= capacity) return;
+            if (!planned.compareAndSet(count, count + 1)) continue;
+            SplittableRandom fleetRandom = split();
+            PLACERS.execute(() -> placeInBackground(fleetRandom));
+        }
+    }
+
+    /**
+     * The planned fleet is given back if it wasn't placed, so the pool is refilled by next calls of {@link #take()}
+     */
+    private void placeInBackground(SplittableRandom fleetRandom) {
+        try {
+            ready.add(place(config, fleetRandom));
+        } catch (RuntimeException e) {
+            planned.decrementAndGet();
+            log.write(Logger.Level.ERROR, "Fleet for " + config + " wasn't placed in background", e);
+        }
+    }
+
+    private SplittableRandom split() {
+        synchronized (random) {
+            return random.split();
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Append-only archive of {@link GameRecord}s for millions of games that don't fit the heap.
+ *
+ * Games are stored in the data file in the same form {@link GameRecordWriter} writes them (size prefix + record),
+ * so the file written by a tournament could be opened as an archive too. Next to it there is the index file
+ * ("name.idx") with the offset of every game as 8 bytes, so game N is found without reading previous games.
+ * The index is completed from the data file when the archive is opened; a truncated game at the end
+ * of the data file (left by a crash) is cut off.
+ *
+ * The archive opened by {@link #openReadOnly(Path)} never writes anything, so it could be read while a tournament
+ * is still appending to it: games that are not in the index yet are indexed in memory, and a truncated game
+ * at the end (maybe the one being written right now) is just not counted.
+ *
+ * Both files are read through memory mapped segments of 1 GB, so reading doesn't copy games into the heap
+ * and the page cache of the OS is shared by all readers. Appending and reading could be done by different threads.
+ *
+ * Usage: {@code java battleship.GameArchive [file]} prints statistics of all games in the archive.
+ */
+final class GameArchive implements Closeable {
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private final FileChannel data;
+    private final boolean readOnly;
+
+    /**
+     * Null if the archive is read-only and there is no index file
+     */
+    private final FileChannel index;
+    private final MappedSegments indexSegments;
+
+    /**
+     * Null if the archive is read-only
+     */
+    private final GameRecordWriter writer;
+    private final MappedSegments dataSegments;
+
+    /**
+     * Games that are in the index file, the rest of them are in "tailOffsets". Used only by read-only archives,
+     * writable ones are indexing every game in the file.
+     */
+    private long indexed;
+    private long[] tailOffsets = new long[0];
+
+    /**
+     * The number of games and the size of the data file. Changed only under the lock of the archive.
+     */
+    private volatile long size;
+    private volatile long dataSize;
+
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+
+    private GameArchive(Path file, boolean readOnly) throws IOException {
+        this.readOnly = readOnly;
+        Path indexFile = Paths.get(file + ".idx");
+        if (readOnly) {
+            data = FileChannel.open(file, StandardOpenOption.READ);
+            index = Files.exists(indexFile) ? FileChannel.open(indexFile, StandardOpenOption.READ) : null;
+            writer = null;
+        } else {
+            data = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            writer = new GameRecordWriter(data);
+        }
+        dataSegments = new MappedSegments(data);
+        indexSegments = index != null ? new MappedSegments(index) : null;
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the archive creating its files if there are no such files yet
+     */
+    static GameArchive open(Path file) throws IOException {
+        return new GameArchive(file, false);
+    }
+
+    /**
+     * Opens the existing archive for reading only, see the description of the class
+     */
+    static GameArchive openReadOnly(Path file) throws IOException {
+        return new GameArchive(file, true);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java battleship.GameArchive [file]");
+            return;
+        }
+        long start = System.nanoTime();
+        long firstWins = 0;
+        long shots = 0;
+        long games = 0;
+        try (GameArchive archive = openReadOnly(Paths.get(args[0]))) {
+            Cursor cursor = archive.cursor(0);
+            while (cursor.next()) {
+                GameRecord record = cursor.getRecord();
+                if (record.getWinner()) firstWins++;
+                shots += record.getShotsNumber();
+                games++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Games: %d read in %.3f s (%.0f games/s)%n", games, seconds, games / seconds);
+        if (games > 0) {
+            System.out.printf("First player won: %d (%.2f%%), average shoots per game: %.2f%n",
+                    firstWins, 100.0 * firstWins / games, (double) shots / games);
+        }
+    }
+
+    /**
+     * Drops broken index entries and indexes games that are in the data file but not in the index.
+     * The read-only archive only skips them and indexes games in memory.
+     */
+    private void recover() throws IOException {
+        long entries = index != null ? index.size() / INDEX_ENTRY_SIZE : 0;
+        long end = 0;
+        // the last entries could point to data that wasn't written
+        while (entries > 0) {
+            long offset = readIndexEntry(entries - 1);
+            long recordEnd = offset < data.size() ? readRecordEnd(offset) : -1;
+            if (recordEnd > 0) {
+                end = recordEnd;
+                break;
+            }
+            entries--;
+        }
+        if (!readOnly) index.truncate(entries * INDEX_ENTRY_SIZE);
+        indexed = entries;
+
+        long dataEnd = data.size();
+        for (long recordEnd; end < dataEnd && (recordEnd = readRecordEnd(end)) > 0; end = recordEnd) {
+            if (readOnly) addTailOffset(entries++ - indexed, end);
+            else writeIndexEntry(entries++, end);
+        }
+        if (!readOnly) {
+            if (end < dataEnd) data.truncate(end);
+            data.position(end);
+            indexed = entries;
+        }
+        dataSize = end;
+        size = entries;
+    }
+
+    private void addTailOffset(long number, long offset) {
+        if (number >= Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many games without the index");
+        if (number == tailOffsets.length) tailOffsets = Arrays.copyOf(tailOffsets, Math.max(16, tailOffsets.length * 2));
+        tailOffsets[(int) number] = offset;
+    }
+
+    private long readIndexEntry(long game) throws IOException {
+        indexEntry.clear();
+        while (indexEntry.hasRemaining()) {
+            if (index.read(indexEntry, game * INDEX_ENTRY_SIZE + indexEntry.position()) < 0) throw new EOFException();
+        }
+        return indexEntry.getLong(0);
+    }
+
+    private void writeIndexEntry(long game, long offset) throws IOException {
+        indexEntry.clear();
+        indexEntry.putLong(0, offset);
+        while (indexEntry.hasRemaining()) {
+            index.write(indexEntry, game * INDEX_ENTRY_SIZE + indexEntry.position());
+        }
+    }
+
+    /**
+     * Returns the end of the record starting at the offset or -1 if it is truncated or its size is broken
+     */
+    private long readRecordEnd(long offset) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(5);
+        data.read(prefix, offset);
+        prefix.flip();
+        int size = 0;
+        for (int i = 0; prefix.hasRemaining(); i++) {
+            byte b = prefix.get();
+            size |= (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                if (size < 0 || size > GameRecordWriter.MAX_RECORD_SIZE) return -1;
+                long end = offset + prefix.position() + size;
+                return end <= data.size() ? end : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the game to the end of the archive and returns its number
+     */
+    synchronized long append(GameRecord record) throws IOException {
+        if (readOnly) throw new IllegalStateException("The archive is opened read-only");
+        long offset = dataSize;
+        int written = writer.write(record);
+        writeIndexEntry(size, offset);
+        dataSize = offset + written;
+        indexed = size + 1;
+        return size++;
+    }
+
+    /**
+     * The number of games in the archive
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Decodes game number N into the record straight from the mapped file
+     */
+    void read(long game, GameRecord record) throws IOException {
+        long count = size;
+        if (game < 0 || game >= count) throw new IndexOutOfBoundsException("There is no game #" + game + " in the archive of " + count);
+        long offset = readOnly && game >= indexed ? tailOffsets[(int) (game - indexed)]
+                : indexSegments.getLong(game * INDEX_ENTRY_SIZE, count * INDEX_ENTRY_SIZE);
+        ByteBuffer buffer = dataSegments.slice(offset, dataSize);
+        int size = GameRecord.getVarint(buffer);
+        if (buffer.remaining() < size) {
+            // the record crosses the end of the mapped segment, it happens only for very big records
+            buffer = ByteBuffer.allocate(size);
+            long position = offset + varintSize(size);
+            while (buffer.hasRemaining()) {
+                if (data.read(buffer, position + buffer.position()) < 0) throw new EOFException("Game #" + game + " is truncated");
+            }
+            buffer.flip();
+        } else {
+            buffer.limit(buffer.position() + size);
+        }
+        record.decode(buffer);
+    }
+
+    private static int varintSize(int value) {
+        int result = 1;
+        while ((value >>>= 7) != 0) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cursor for reading games one by one from the given game
+     */
+    Cursor cursor(long from) {
+        return new Cursor(from);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            data.close();
+        } finally {
+            if (index != null) index.close();
+        }
+    }
+
+    /**
+     * Streaming reader of the archive. The record and both fields are reused for every game,
+     * so scanning the whole archive allocates only when the config of games changes.
+     * Every thread should have its own cursor.
+     */
+    final class Cursor {
+        private final GameRecord record = new GameRecord();
+        private long next;
+        private Field first = null;
+        private Field second = null;
+
+        private Cursor(long from) {
+            next = from;
+        }
+
+        /**
+         * Decodes the next game. Returns "false" if there are no more games.
+         */
+        boolean next() throws IOException {
+            if (next >= size) return false;
+            read(next++, record);
+            return true;
+        }
+
+        /**
+         * The number of the current game
+         */
+        long getGame() {
+            return next - 1;
+        }
+
+        GameRecord getRecord() {
+            return record;
+        }
+
+        /**
+         * Replays the current game into the fields, so the final state could be looked at with {@link #getField(boolean)}
+         */
+        void replay() {
+            GameConfig config = record.getConfig();
+            if (first == null || !first.getConfig().equals(config)) {
+                first = new Field(config);
+                second = new Field(config);
+            }
+            record.replay(first, second);
+        }
+
+        /**
+         * Returns the field of the first or the second player after {@link #replay()}
+         */
+        BoardView getField(boolean firstPlayer) {
+            return firstPlayer ? first : second;
+        }
+    }
+
+    /**
+     * File mapped by segments of 1 GB, because one mapping can't be bigger than 2 GB.
+     * Segments are overlapping by 1 MB, so records up to that size never cross segments.
+     * The segment is mapped again when the file grows.
+     */
+    private static final class MappedSegments {
+        private static final int SEGMENT_SHIFT = 30;
+        private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+        private static final long OVERLAP = 1L << 20;
+
+        private final FileChannel channel;
+        private MappedByteBuffer[] segments = new MappedByteBuffer[1];
+
+        MappedSegments(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Returns the buffer from the offset up to the end of the mapped segment (not further than the end).
+         * The buffer is a view of the mapping, nothing is copied.
+         */
+        ByteBuffer slice(long offset, long end) throws IOException {
+            int number = (int) (offset >>> SEGMENT_SHIFT);
+            MappedByteBuffer segment = segment(number, Math.min(end, offset + OVERLAP));
+            return segment.duplicate().position((int) (offset - (long) number * SEGMENT_SIZE));
+        }
+
+        long getLong(long offset, long end) throws IOException {
+            int number = (int) (offset >>> SEGMENT_SHIFT);
+            return segment(number, Math.min(end, offset + Long.BYTES)).getLong((int) (offset - (long) number * SEGMENT_SIZE));
+        }
+
+        /**
+         * Returns the segment mapped at least up to the needed position of the file
+         */
+        private synchronized MappedByteBuffer segment(int number, long needed) throws IOException {
+            if (number >= segments.length) segments = Arrays.copyOf(segments, Math.max(number + 1, segments.length * 2));
+            long start = (long) number * SEGMENT_SIZE;
+            MappedByteBuffer segment = segments[number];
+            if (segment == null || start + segment.capacity() < needed) {
+                long length = Math.min(SEGMENT_SIZE + OVERLAP, channel.size() - start);
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                segments[number] = segment;
+            }
+            return segment;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package battleship;
+
+import java.util.Arrays;
+
+/**
+ * Size of the field and the fleet every player places at it.
+ * The fleet is described by the number of ships for each number of decks.
+ *
+ * The string form used on the command line is "WIDTHxHEIGHT:N1,N2,N3,..." where Ni is the number of ships with i decks,
+ * so the classic game is "10x10:4,3,2,1".
+ */
+final class GameConfig {
+    /**
+     * Field 10x10 with 4 single-deck ships, 3 double-deck ones, 2 triple-deckers and 1 with 4 decks
+     */
+    static final GameConfig CLASSIC = new GameConfig(10, 10, 4, 3, 2, 1);
+
+    /**
+     * Coordinates are packed into 12 bits, see {@link Coordinates#packPlacement(int, int, int, boolean)}
+     */
+    static final int MAX_SIDE = 4095;
+
+    /**
+     * Number of decks is packed into 7 bits
+     */
+    static final int MAX_DECKS = 127;
+
+    private final int width;
+    private final int height;
+
+    /**
+     * The number of ships by the number of decks: fleet[1] - single-deck ships and so on. fleet[0] is always 0.
+     */
+    private final int[] fleet;
+    private final int shipsNumber;
+    private final int decksNumber;
+
+    /**
+     * Takes the size of the field and the number of ships with 1, 2, 3... decks.
+     */
+    GameConfig(int width, int height, int... shipsByDecks) {
+        if (width < 1 || height < 1 || width > MAX_SIDE || height > MAX_SIDE) {
+            throw new IllegalArgumentException("Wrong field size: " + width + "x" + height);
+        }
+        if (shipsByDecks.length > Math.min(MAX_DECKS, Math.max(width, height))) {
+            throw new IllegalArgumentException("Ships with " + shipsByDecks.length + " decks don't fit the field " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.fleet = new int[shipsByDecks.length + 1];
+        int ships = 0;
+        int decks = 0;
+        for (int i = 0; i < shipsByDecks.length; i++) {
+            if (shipsByDecks[i] < 0) throw new IllegalArgumentException("Negative number of ships: " + shipsByDecks[i]);
+            fleet[i + 1] = shipsByDecks[i];
+            ships += shipsByDecks[i];
+            decks += shipsByDecks[i] * (i + 1);
+        }
+        if (ships == 0) throw new IllegalArgumentException("There are no ships in the fleet");
+        if (decks > width * height) throw new IllegalArgumentException("Fleet doesn't fit the field " + width + "x" + height);
+        this.shipsNumber = ships;
+        this.decksNumber = decks;
+    }
+
+    /**
+     * Parses the config from the "10x10:4,3,2,1" form.
+     */
+    static GameConfig parse(String value) {
+        try {
+            String[] parts = value.trim().toLowerCase().split(":");
+            String[] size = parts[0].split("x");
+            String[] ships = parts[1].split(",");
+            int[] shipsByDecks = new int[ships.length];
+            for (int i = 0; i < ships.length; i++) {
+                shipsByDecks[i] = Integer.parseInt(ships[i].trim());
+            }
+            return new GameConfig(Integer.parseInt(size[0].trim()), Integer.parseInt(size[1].trim()), shipsByDecks);
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException && !(e instanceof NumberFormatException)) throw e;
+            throw new IllegalArgumentException("Wrong game config \"" + value + "\", expected something like 10x10:4,3,2,1", e);
+        }
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * The number of cells at the field
+     */
+    int getCellsNumber() {
+        return width * height;
+    }
+
+    /**
+     * The number of decks of the longest ship
+     */
+    int getMaxDecks() {
+        return fleet.length - 1;
+    }
+
+    /**
+     * The number of ships with some number of decks
+     */
+    int getShipsNumber(int numberOfDecks) {
+        return numberOfDecks > 0 && numberOfDecks < fleet.length ? fleet[numberOfDecks] : 0;
+    }
+
+    /**
+     * The number of all ships in the fleet
+     */
+    int getShipsNumber() {
+        return shipsNumber;
+    }
+
+    /**
+     * The number of all decks of all ships in the fleet
+     */
+    int getDecksNumber() {
+        return decksNumber;
+    }
+
+    /**
+     * Checks if this config has the same size and the same number of ships for every length (from 1, by index 0),
+     * so the decoded config could be reused without creating a new one
+     */
+    boolean matches(int width, int height, int[] shipsByDecks, int length) {
+        if (this.width != width || this.height != height || fleet.length != length + 1) return false;
+        for (int i = 0; i < length; i++) {
+            if (fleet[i + 1] != shipsByDecks[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameConfig)) return false;
+        GameConfig that = (GameConfig) o;
+        return width == that.width && height == that.height && Arrays.equals(fleet, that.fleet);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * width + height) + Arrays.hashCode(fleet);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(width).append('x').append(height).append(':');
+        for (int i = 1; i < fleet.length; i++) {
+            if (i > 1) sb.append(',');
+            sb.append(fleet[i]);
+        }
+        return sb.toString();
+    }
+}
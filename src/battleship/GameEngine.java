@@ -0,0 +1,136 @@
+package battleship;
+
+/**
+ * Rules of one game as a state machine that is moved by events, one shoot at a time:
+ * placement, turn of the first player, turn of the second one, finished.
+ *
+ * Nothing here waits for anybody: {@link #shipsPlaced(int)} and {@link #shoot(int, int, int)} are called
+ * when the placement or the shoot of some player arrives (from the console, the network or the computer),
+ * and the listener is told about results and new states. So one thread could serve any number of games
+ * and human's input could come whenever it comes. The engine is not thread safe: events of one game
+ * should come from one thread at a time.
+ */
+final class GameEngine {
+    enum State { PLACEMENT, FIRST_PLAYER_TURN, SECOND_PLAYER_TURN, FINISHED }
+
+    /**
+     * Gets events of the game. Methods are called after the engine changed its state, so they could look at it.
+     */
+    interface Listener {
+        /**
+         * Result is the same as {@link Field#checkDeckAtField(int, int)} returns
+         */
+        default void shot(GameEngine game, int shooter, int x, int y, int result) {
+        }
+
+        default void stateChanged(GameEngine game, State state) {
+        }
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {
+    };
+
+    private final Player[] players;
+    private final boolean[] placed = new boolean[2];
+    private final int firstAttacker;
+    private State state = State.PLACEMENT;
+    private int winner = -1;
+    private boolean resigned = false;
+    private Listener listener = NO_LISTENER;
+
+    /**
+     * Players are numbered 0 and 1. The one who shoots first is told by "firstStarts".
+     */
+    GameEngine(Player first, Player second, boolean firstStarts) {
+        players = new Player[]{first, second};
+        firstAttacker = firstStarts ? 0 : 1;
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    Player getPlayer(int number) {
+        return players[number];
+    }
+
+    /**
+     * The number of the player who shoots now, -1 if nobody shoots
+     */
+    int getAttacker() {
+        if (state == State.FIRST_PLAYER_TURN) return 0;
+        if (state == State.SECOND_PLAYER_TURN) return 1;
+        return -1;
+    }
+
+    /**
+     * The number of the winner, -1 if the game is not finished
+     */
+    int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Checks if the game was finished because somebody gave up
+     */
+    boolean isResigned() {
+        return resigned;
+    }
+
+    boolean isPlaced(int player) {
+        return placed[player];
+    }
+
+    /**
+     * The player placed all ships. The first turn starts when both players are ready.
+     */
+    void shipsPlaced(int player) {
+        if (state != State.PLACEMENT) throw new IllegalStateException("Ships are placed already");
+        placed[player] = true;
+        if (placed[0] && placed[1]) startTurn(firstAttacker);
+    }
+
+    /**
+     * Shoots at the field of the enemy of the player. Returns the same as {@link Field#checkDeckAtField(int, int)}.
+     * The turn goes to the enemy after a miss and the game is finished when the enemy has no more ships.
+     * Throws IllegalStateException if it is not the turn of the player.
+     */
+    int shoot(int player, int x, int y) {
+        if (getAttacker() != player) throw new IllegalStateException("It is not the turn of player " + player);
+        int enemy = 1 - player;
+        int result = players[enemy].beingAttacked(x, y);
+        players[player].shotMade(result);
+        listener.shot(this, player, x, y, result);
+        if (!players[enemy].isMoreShips()) finish(player);
+        else if (result == 0) startTurn(enemy);
+        return result;
+    }
+
+    /**
+     * The player gives up (or just leaves), so the enemy wins
+     */
+    void resign(int player) {
+        if (state == State.FINISHED) return;
+        resigned = true;
+        finish(1 - player);
+    }
+
+    private void startTurn(int player) {
+        players[player].incrementTheNumberOfMovesPlayerDid();
+        changeState(player == 0 ? State.FIRST_PLAYER_TURN : State.SECOND_PLAYER_TURN);
+    }
+
+    private void finish(int winner) {
+        this.winner = winner;
+        changeState(State.FINISHED);
+    }
+
+    private void changeState(State state) {
+        this.state = state;
+        listener.stateChanged(this, state);
+    }
+}
@@ -0,0 +1,159 @@
+package battleship;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of hot paths: ship placements, shoots, choices of computers and the console.
+ *
+ * Every event is disabled by default, so it costs only the check of a flag (the JIT removes the unused event object):
+ * events are started by {@link GameEvent#start()} instead of {@link Event#begin()}, which reads the clock even when
+ * the event is disabled.
+ * They are turned on in the running process with the settings from "jfr/battleship.jfc":
+ * {@code jcmd PID JFR.start settings=jfr/battleship.jfc duration=60s filename=battleship.jfr}.
+ * Fields are set only when the event is going to be written, so nothing is counted for disabled ones.
+ */
+final class GameEvents {
+    private static final String CATEGORY = "BattleShip";
+
+    private GameEvents() {
+    }
+
+    /**
+     * Event that is timed only if it was enabled when it started
+     */
+    abstract static class GameEvent extends Event {
+        private transient boolean started = false;
+
+        void start() {
+            if (!isEnabled()) return;
+            started = true;
+            begin();
+        }
+
+        /**
+         * Ends the started event and checks if it should be written
+         */
+        boolean stop() {
+            if (!started) return false;
+            end();
+            return shouldCommit();
+        }
+    }
+
+    @Name("battleship.ShipPlacement")
+    @Label("Ship Placement")
+    @Description("Ship put at the field, with the reason if it was refused")
+    @Category({CATEGORY, "Field"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ShipPlacement extends GameEvent {
+        @Label("Start X")
+        int startX;
+
+        @Label("Start Y")
+        int startY;
+
+        @Label("End X")
+        int endX;
+
+        @Label("End Y")
+        int endY;
+
+        @Label("Decks")
+        int decks;
+
+        @Label("Rejection Reason")
+        @Description("Null if the ship was placed")
+        String reason;
+
+        void finish(int startX, int startY, int decks, int endX, int endY, String reason) {
+            if (!stop()) return;
+            this.startX = startX;
+            this.startY = startY;
+            this.decks = decks;
+            this.endX = endX;
+            this.endY = endY;
+            this.reason = reason;
+            commit();
+        }
+    }
+
+    @Name("battleship.Shot")
+    @Label("Shot")
+    @Description("Shoot at the field")
+    @Category({CATEGORY, "Field"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Shot extends GameEvent {
+        @Label("X")
+        int x;
+
+        @Label("Y")
+        int y;
+
+        @Label("Result")
+        @Description("-1 already shoot, 0 missed, 1 hit, 2 killed")
+        int result;
+
+        void finish(int x, int y, int result) {
+            if (!stop()) return;
+            this.x = x;
+            this.y = y;
+            this.result = result;
+            commit();
+        }
+    }
+
+    @Name("battleship.ShotDecision")
+    @Label("Shot Decision")
+    @Description("Computer choosing its shoot, the duration is the time the strategy took")
+    @Category({CATEGORY, "Computer"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ShotDecision extends GameEvent {
+        @Label("Strategy")
+        String strategy;
+
+        @Label("Cell")
+        String cell;
+
+        void finish(ShotStrategy strategy, int shot) {
+            if (!stop()) return;
+            this.strategy = strategy.getName();
+            this.cell = Coordinates.toString(Coordinates.x(shot), Coordinates.y(shot));
+            commit();
+        }
+    }
+
+    @Name("battleship.Console")
+    @Label("Console")
+    @Description("Console phase: composing the frame of fields, writing it or reading the line of the user")
+    @Category({CATEGORY, "Console"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Console extends GameEvent {
+        static final String RENDER = "render";
+        static final String WRITE = "write";
+        static final String READ = "read";
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Characters")
+        @Description("Size of the frame, of the written text in bytes or of the read line")
+        int size;
+
+        void finish(String phase, int size) {
+            if (!stop()) return;
+            this.phase = phase;
+            this.size = size;
+            commit();
+        }
+    }
+}
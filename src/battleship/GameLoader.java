@@ -1,61 +1,67 @@
 package battleship;
 
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * The loader of the game.
  * Main method is here.
+ * Size of the field and ships could be changed with "battleship.config" system property like "12x12:4,3,2,1,1".
  */
 // todo: add comments
-// todo: add loggers levels
 // todo: add names in messages
 // todo: add statusbars
-// todo: add statistics (time + hits efficiency)
 // todo: add default properties opening
 // todo: add splitter's signs
-// todo: add other then ABCDEFGHIJ strings
-// todo: add different fields sizes and ships number
 // todo: incapsulate getCells
 // todo: add languages
-// todo: play with comp against comp
 // todo: int -> byte
 class GameLoader {
     private static final Logger log = Logger.getInstance();
 
     public static void main(String[] args) {
-        UserInterface ui = new UserInterface(args);
-        MachineLogic ai = new MachineLogic(ui.getDesirableComputerName());
+        GameConfig config = GameConfig.parse(System.getProperty("battleship.config", GameConfig.CLASSIC.toString()));
+        UserInterface ui = new UserInterface(args, config);
+        MachineLogic ai = new MachineLogic(ui.getDesirableComputerName(), config,
+                new RandomShotStrategy(), new LegalPlacementStrategy());
 
-        log.write("Placing computer's ships by running a new thread.");
-        Thread thread = new Thread(ai, "Placing ships by computer");
-        thread.start();
-        synchronized (log) {
-            log.write("Asking user to place his ships.");
-        }
+        log.write("Taking computer's ships from the pool of placed fleets.");
+        CompletableFuture<Field> fleet = FleetPool.forConfig(config).take();
+        log.write("Asking user to place his ships.");
         ui.placeShips();
-        if (thread.isAlive()) {
-            ui.askToWait();
-            try {
-                thread.join();
-                log.write("Computer's ships placement finished.");
-            } catch (InterruptedException e) {
-                log.write("Computer's ships placement was interrupted by something.", e);
-                // TODO add System.exit()
-            }
+        if (!fleet.isDone()) ui.askToWait();
+        try {
+            ai.placeFleet(fleet.join());
+            log.write("Computer's ships placement finished.");
+        } catch (CompletionException e) {
+            log.write(Logger.Level.ERROR, "Computer's fleet wasn't placed in background, placing it now.", e.getCause());
+            ai.placeShips();
         }
         ui.gameStarted();
+        MetricsExporter exporter = MetricsExporter.fromProperties();
+        try {
+            long started = System.nanoTime();
 
-        int counter = 0;
-        while (ui.isMoreShips() && ai.isMoreShips()) {
-            if (counter++ % 2 == 0) {
-                ui.drawAllFields(ai);
-                ui.makeShoot(ai);
+            new ConsoleGame(ui, ai).play();
+
+            ui.drawAllFields(ai);
+            if (ui.isMoreShips()) ui.won();
+            else ui.loose();
+            Metrics metrics = Metrics.getInstance();
+            metrics.histogram("game.duration_us").record((System.nanoTime() - started) / 1000);
+            metrics.gameFinished("human", ui, ui.isMoreShips());
+            metrics.gameFinished("computer", ai, ai.isMoreShips());
+        } finally {
+            if (exporter != null) {
+                try {
+                    exporter.close();
+                } catch (IOException e) {
+                    log.write(Logger.Level.WARN, "Last metrics are not written", e);
+                }
             }
-            else ai.makeShoot(ui);
         }
 
-        ui.drawAllFields(ai);
-        if (ui.isMoreShips()) ui.won();
-        else ui.loose();
-
         UserInterface.end();
         log.write("Program finished.");
         log.write();
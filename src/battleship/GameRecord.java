@@ -0,0 +1,293 @@
+package battleship;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Everything needed to replay one game: the config, who started, both fleets and every shoot with its result.
+ * The record is reused: {@link #start(GameConfig, boolean)} or {@link #decode(ByteBuffer)} are overwriting it,
+ * so a lot of games could be recorded or read without allocations.
+ *
+ * Binary form (numbers are unsigned varints: 7 bits per byte, the highest bit is set while there are more bytes):
+ * <pre>
+ * version             1 byte
+ * width, height       varints
+ * fleet               varint with the longest ship length, then varint with the number of ships for every length
+ * flags               1 byte, bit 0 is set if the first player shoots first
+ * first player ships  varint (cell &lt;&lt; 1 | 1 if placed by X) for every ship, the longest ships first
+ * second player ships the same
+ * shoots number       varint
+ * shoots              varint with the cell for every shoot: one byte at fields up to 128 cells
+ * results             2 bits for every shoot, 4 in a byte from the lowest bits: result of {@link Field#checkDeckAtField(int, int)} + 1
+ * </pre>
+ * Cell is {@code y * width + x}. Who made the shoot is not written: players are changing only after misses.
+ * A classic game between computers takes about 160 bytes: one byte for every shoot and a quarter of byte for its result.
+ */
+final class GameRecord implements Field.ShotListener {
+    static final byte VERSION = 1;
+
+    private GameConfig config;
+    private boolean firstStarts;
+    private int[] firstFleet = new int[0];
+    private int[] secondFleet = new int[0];
+    private int[] shots = new int[128];
+    private byte[] results = new byte[128];
+    private int shotsNumber;
+
+    /**
+     * Fleet of the config being decoded, reused so reading a lot of games with the same config doesn't allocate
+     */
+    private int[] decodedFleet = new int[8];
+
+    /**
+     * Starts recording a new game. Fleets should be saved with {@link #setFleets(Field, Field)} after the placement.
+     */
+    void start(GameConfig config, boolean firstStarts) {
+        this.config = config;
+        this.firstStarts = firstStarts;
+        shotsNumber = 0;
+        if (firstFleet.length != config.getShipsNumber()) {
+            firstFleet = new int[config.getShipsNumber()];
+            secondFleet = new int[config.getShipsNumber()];
+        }
+    }
+
+    /**
+     * Saves ships of both players. Every field should have the whole fleet from the config.
+     */
+    void setFleets(Field first, Field second) {
+        saveFleet(first, firstFleet);
+        saveFleet(second, secondFleet);
+    }
+
+    /**
+     * Ships are sorted by length, so the length doesn't have to be written
+     */
+    private void saveFleet(Field field, int[] fleet) {
+        if (field.getPlacedShipsNumber() != fleet.length) {
+            throw new IllegalStateException("Field has " + field.getPlacedShipsNumber() + " ships instead of " + fleet.length);
+        }
+        int count = 0;
+        for (int decks = config.getMaxDecks(); decks > 0; decks--) {
+            for (int slot = 0; slot < fleet.length; slot++) {
+                int placement = field.getShipPlacement(slot);
+                if (Coordinates.placementDecks(placement) == decks) fleet[count++] = placement;
+            }
+        }
+    }
+
+    /**
+     * Saves the shoot at the field of one of players
+     */
+    @Override
+    public void shot(Field field, int x, int y, int result) {
+        if (shotsNumber == shots.length) {
+            shots = Arrays.copyOf(shots, shotsNumber * 2);
+            results = Arrays.copyOf(results, shotsNumber * 2);
+        }
+        shots[shotsNumber] = Coordinates.pack(x, y);
+        results[shotsNumber++] = (byte) result;
+    }
+
+    GameConfig getConfig() {
+        return config;
+    }
+
+    boolean isFirstStarts() {
+        return firstStarts;
+    }
+
+    int getShotsNumber() {
+        return shotsNumber;
+    }
+
+    /**
+     * Returns packed coordinates of the shoot, see {@link Coordinates#pack(int, int)}
+     */
+    int getShot(int number) {
+        return shots[number];
+    }
+
+    /**
+     * Returns the result of the shoot: -1 already, 0 miss, 1 hit, 2 killed
+     */
+    int getResult(int number) {
+        return results[number];
+    }
+
+    /**
+     * Returns packed placement (see {@link Coordinates#packPlacement(int, int, int, boolean)}) of some ship
+     * of the first or the second player
+     */
+    int getShip(boolean firstPlayer, int number) {
+        return firstPlayer ? firstFleet[number] : secondFleet[number];
+    }
+
+    /**
+     * Returns "true" if the first player killed all enemy's ships. It is found by results, without replaying the game.
+     */
+    boolean getWinner() {
+        boolean firstShoots = firstStarts;
+        int firstKills = 0;
+        for (int i = 0; i < shotsNumber; i++) {
+            if (results[i] == 2 && firstShoots) firstKills++;
+            if (results[i] == 0) firstShoots = !firstShoots;
+        }
+        return firstKills == config.getShipsNumber();
+    }
+
+    /**
+     * Places recorded fleets and shoots every recorded shoot at given fields, checking that results are the same.
+     * Fields should have the same config as the record. Throws IllegalStateException if the record doesn't match the game rules.
+     */
+    void replay(Field first, Field second) {
+        placeFleet(first, firstFleet);
+        placeFleet(second, secondFleet);
+        boolean firstShoots = firstStarts;
+        for (int i = 0; i < shotsNumber; i++) {
+            Field target = firstShoots ? second : first;
+            int result = target.checkDeckAtField(Coordinates.x(shots[i]), Coordinates.y(shots[i]));
+            if (result != results[i]) {
+                throw new IllegalStateException("Shoot #" + i + " at " + Coordinates.toString(Coordinates.x(shots[i]),
+                        Coordinates.y(shots[i])) + " was recorded as " + results[i] + " but replayed as " + result);
+            }
+            if (result == 0) firstShoots = !firstShoots;
+        }
+    }
+
+    private static void placeFleet(Field field, int[] fleet) {
+        field.reset();
+        for (int placement : fleet) {
+            int x = Coordinates.placementX(placement);
+            int y = Coordinates.placementY(placement);
+            int decks = Coordinates.placementDecks(placement);
+            try {
+                if (decks == 1) field.putShip(x, y);
+                else field.putShip(x, y, decks, Coordinates.placementEndX(placement), Coordinates.placementEndY(placement));
+            } catch (ShipPlacementException e) {
+                throw new IllegalStateException("Recorded ship can't be placed at " + Coordinates.toString(x, y) + ": " + e.getMessage());
+            }
+        }
+        field.clear();
+    }
+
+    /**
+     * The biggest possible size of the binary form, so the buffer could be checked before writing
+     */
+    int getMaxEncodedSize() {
+        return 1 + 5 * (3 + config.getMaxDecks()) + 1 + 5 * 2 * firstFleet.length + 5 + 5 * shotsNumber + (shotsNumber + 3) / 4;
+    }
+
+    /**
+     * Writes the binary form to the buffer starting from its position
+     */
+    void encode(ByteBuffer buffer) {
+        int width = config.getWidth();
+        buffer.put(VERSION);
+        putVarint(buffer, width);
+        putVarint(buffer, config.getHeight());
+        putVarint(buffer, config.getMaxDecks());
+        for (int decks = 1; decks <= config.getMaxDecks(); decks++) {
+            putVarint(buffer, config.getShipsNumber(decks));
+        }
+        buffer.put((byte) (firstStarts ? 1 : 0));
+        encodeFleet(buffer, firstFleet, width);
+        encodeFleet(buffer, secondFleet, width);
+        putVarint(buffer, shotsNumber);
+        for (int i = 0; i < shotsNumber; i++) {
+            putVarint(buffer, Coordinates.y(shots[i]) * width + Coordinates.x(shots[i]));
+        }
+        int packed = 0;
+        for (int i = 0; i < shotsNumber; i++) {
+            packed |= (results[i] + 1) << ((i & 3) << 1);
+            if ((i & 3) == 3 || i == shotsNumber - 1) {
+                buffer.put((byte) packed);
+                packed = 0;
+            }
+        }
+    }
+
+    private static void encodeFleet(ByteBuffer buffer, int[] fleet, int width) {
+        for (int placement : fleet) {
+            int cell = Coordinates.placementY(placement) * width + Coordinates.placementX(placement);
+            putVarint(buffer, cell << 1 | (Coordinates.placementByX(placement) ? 1 : 0));
+        }
+    }
+
+    /**
+     * Reads the binary form from the buffer into this record. The config is created again only if it was changed.
+     * Throws IllegalArgumentException if the data is broken.
+     */
+    void decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) throw new IllegalArgumentException("Unknown version of the game record: " + version);
+            int width = getVarint(buffer);
+            int height = getVarint(buffer);
+            int maxDecks = getVarint(buffer);
+            if (maxDecks > GameConfig.MAX_DECKS) throw new IllegalArgumentException("Wrong number of decks: " + maxDecks);
+            if (maxDecks > decodedFleet.length) decodedFleet = new int[maxDecks];
+            for (int i = 0; i < maxDecks; i++) {
+                decodedFleet[i] = getVarint(buffer);
+            }
+            GameConfig decoded = config != null && config.matches(width, height, decodedFleet, maxDecks)
+                    ? config : new GameConfig(width, height, Arrays.copyOf(decodedFleet, maxDecks));
+            start(decoded, (buffer.get() & 1) != 0);
+            decodeFleet(buffer, firstFleet);
+            decodeFleet(buffer, secondFleet);
+            int number = getVarint(buffer);
+            // recorded computers shoot every cell of the enemy once at most, and every shoot takes a byte at least,
+            // so arrays are never allocated for data that isn't there
+            if (number < 0 || number > width * height * 2 || number > buffer.remaining()) {
+                throw new IllegalArgumentException("Wrong number of shoots: " + number);
+            }
+            if (number > shots.length) {
+                shots = new int[number];
+                results = new byte[number];
+            }
+            for (int i = 0; i < number; i++) {
+                int cell = getVarint(buffer);
+                shots[i] = Coordinates.pack(cell % width, cell / width);
+            }
+            int packed = 0;
+            for (int i = 0; i < number; i++) {
+                if ((i & 3) == 0) packed = buffer.get();
+                results[i] = (byte) ((packed >> ((i & 3) << 1) & 3) - 1);
+            }
+            shotsNumber = number;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Game record is truncated", e);
+        }
+    }
+
+    private void decodeFleet(ByteBuffer buffer, int[] fleet) {
+        int width = config.getWidth();
+        int count = 0;
+        for (int decks = config.getMaxDecks(); decks > 0; decks--) {
+            for (int i = 0; i < config.getShipsNumber(decks); i++) {
+                int value = getVarint(buffer);
+                int cell = value >>> 1;
+                fleet[count++] = Coordinates.packPlacement(cell % width, cell / width, decks, (value & 1) != 0);
+            }
+        }
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) return result;
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+}
@@ -0,0 +1,86 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads records written by {@link GameRecordWriter} one by one into the same {@link GameRecord}.
+ * The channel is read in big chunks and the buffer grows only if some record doesn't fit it,
+ * but never above {@link GameRecordWriter#MAX_RECORD_SIZE}.
+ */
+final class GameRecordReader implements Closeable {
+    private final ReadableByteChannel channel;
+
+    /**
+     * Bytes from the position to the limit are read from the channel but not decoded yet
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).flip();
+    private boolean endOfChannel = false;
+
+    GameRecordReader(ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    static GameRecordReader open(Path file) throws IOException {
+        return new GameRecordReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the next record into the given one. Returns "false" if there are no more records.
+     * Throws EOFException if the last record is truncated and IllegalArgumentException if it is broken.
+     */
+    boolean next(GameRecord record) throws IOException {
+        if (!fill(1)) return false;
+        int size = 0;
+        int prefix = 0;
+        while (true) {
+            if (!fill(prefix + 1)) throw new EOFException("Game record size is truncated");
+            byte b = buffer.get(buffer.position() + prefix);
+            size |= (b & 0x7F) << (7 * prefix++);
+            if (b >= 0) break;
+            if (prefix == 5) throw new IllegalArgumentException("Game record size is broken");
+        }
+        if (size < 0 || size > GameRecordWriter.MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Wrong game record size: " + (size & 0xFFFFFFFFL));
+        }
+        if (!fill(prefix + size)) throw new EOFException("Game record is truncated");
+
+        int start = buffer.position() + prefix;
+        ByteBuffer data = buffer.duplicate().limit(start + size).position(start);
+        record.decode(data);
+        if (data.hasRemaining()) throw new IllegalArgumentException("Game record has " + data.remaining() + " extra bytes");
+        buffer.position(start + size);
+        return true;
+    }
+
+    /**
+     * Reads the channel until there are at least the needed number of bytes in the buffer.
+     * Returns "false" if the channel ended earlier.
+     */
+    private boolean fill(int needed) throws IOException {
+        while (buffer.remaining() < needed) {
+            if (endOfChannel) return false;
+            if (buffer.capacity() < needed) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2));
+                bigger.put(buffer);
+                buffer = bigger;
+            } else {
+                buffer.compact();
+            }
+            if (channel.read(buffer) < 0) endOfChannel = true;
+            buffer.flip();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,112 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Appends {@link GameRecord}s to a file or any other channel. Every record is prefixed with its size (varint),
+ * so records could be skipped without decoding.
+ *
+ * Records are encoded into direct buffers taken from the pool shared by all writers, so writing doesn't allocate
+ * and threads are waiting for each other only while the encoded bytes are written to the channel.
+ */
+final class GameRecordWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Size prefix takes up to 5 bytes, so records are encoded after this offset and the prefix is put right before them
+     */
+    private static final int PREFIX_SIZE = 5;
+
+    /**
+     * Records are never bigger than this: a classic game takes about a hundred bytes. Readers trust no size prefix above it.
+     */
+    static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private static final ArrayBlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(16);
+
+    private final WritableByteChannel channel;
+    private long recordsWritten = 0;
+    private long bytesWritten = 0;
+
+    GameRecordWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the file for appending, creating it if needed
+     */
+    static GameRecordWriter append(Path file) throws IOException {
+        return new GameRecordWriter(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    /**
+     * Encodes the record and appends it to the channel. Could be called by several threads.
+     * Returns the number of written bytes including the size prefix.
+     */
+    int write(GameRecord record) throws IOException {
+        int maxSize = PREFIX_SIZE + record.getMaxEncodedSize();
+        ByteBuffer buffer = maxSize <= BUFFER_SIZE ? takeBuffer() : ByteBuffer.allocate(maxSize);
+        try {
+            buffer.position(PREFIX_SIZE);
+            record.encode(buffer);
+            int end = buffer.position();
+            int size = end - PREFIX_SIZE;
+            if (size > MAX_RECORD_SIZE) throw new IllegalArgumentException("Game record is too big: " + size + " bytes");
+            int start = PREFIX_SIZE - varintSize(size);
+            buffer.position(start);
+            GameRecord.putVarint(buffer, size);
+            buffer.limit(end).position(start);
+            synchronized (this) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                recordsWritten++;
+                bytesWritten += end - start;
+            }
+            return end - start;
+        } finally {
+            if (buffer.isDirect()) {
+                buffer.clear();
+                POOL.offer(buffer);   // extra buffers are just thrown away when the pool is full
+            }
+        }
+    }
+
+    private static ByteBuffer takeBuffer() {
+        ByteBuffer buffer = POOL.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * All written bytes including size prefixes
+     */
+    synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
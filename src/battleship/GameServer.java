@@ -0,0 +1,408 @@
+package battleship;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP server for a lot of games at once: humans against the computer and humans against each other.
+ *
+ * All connections are served by one thread with the NIO selector, so an idle connection costs only its buffers
+ * and a game costs two fields. Games are moved by {@link GameEngine} events in the selector thread;
+ * computers are choosing their shoots in a small pool of threads and the shoots are given back to the selector thread. Nothing is shared with the console game: there is no console and no language map here.
+ *
+ * The protocol is text lines (it could be played with telnet or nc). Commands are not case sensitive:
+ * <pre>
+ * NAME name              - name shown to the enemy
+ * NEW [AI [strategy]]    - game against the computer with some shooting strategy
+ * NEW HUMAN              - game against the next human who asks for it
+ * PLACE A1 [A4]          - places the ship from the first deck to the last one, single-deck ships need one cell
+ * AUTO                   - places all ships randomly
+ * FIRE B7                - shoots
+ * BOARD                  - sends both fields as "ROW n own enemy" lines
+ * LEAVE                  - gives up the game
+ * QUIT                   - closes the connection
+ * </pre>
+ * Answers are "OK", "ERROR message", "GAME config VS name", "SHIPS 4 3 3 ..." (ships to place), "READY", "WAIT",
+ * "TURN YOU|ENEMY", "MISS|HIT|KILL|ALREADY cell" after own shoots and the same after "ENEMY " for enemy's ones,
+ * "WIN", "LOSE" and "LEFT" when the enemy left the game.
+ *
+ * Usage: {@code java battleship.GameServer [port] [config] [strategy]}.
+ * Computers "think" before every shoot for "battleship.server.delay" milliseconds (0 by default). The pause is
+ * {@link TurnPacing#scheduled(long)}: it is waited on the shared timer, so no thread is parked by a paused game.
+ * Java 17 has no virtual threads, so the selector is used instead of a thread per connection.
+ */
+final class GameServer implements Closeable, Runnable {
+    static final int DEFAULT_PORT = 4242;
+    private static final String DEFAULT_STRATEGY = "density";
+
+    private static final Logger log = Logger.getInstance();
+
+    /**
+     * Longer lines are not commands, so the connection is closed
+     */
+    private static final int MAX_LINE = 256;
+
+    /**
+     * Connection is closed if the client doesn't read answers and they take more than this
+     */
+    private static final int MAX_OUTPUT = 1 << 20;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final GameConfig config;
+    private final String strategy;
+    private final ExecutorService computers;
+
+    /**
+     * Tasks from other threads (finished computer turns) that should be done by the selector thread
+     */
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final SplittableRandom random = new SplittableRandom();
+    private volatile boolean running = true;
+
+    /**
+     * Human waiting for another one. Used only by the selector thread.
+     */
+    private Connection waiting = null;
+
+    /**
+     * Pause before every shoot of computers, it is never waited by threads of the server
+     */
+    private volatile TurnPacing computerPacing = TurnPacing.NONE;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong gamesFinished = new AtomicLong();
+
+    GameServer(InetSocketAddress address, GameConfig config, String strategy) throws IOException {
+        Strategies.createShotStrategy(strategy);   // fails on unknown names before anybody connects
+        this.config = config;
+        this.strategy = strategy;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        AtomicInteger threads = new AtomicInteger();
+        computers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+            Thread thread = new Thread(task, "Computer player " + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameConfig config = args.length > 1 ? GameConfig.parse(args[1]) : GameConfig.CLASSIC;
+        String strategy = args.length > 2 ? args[2] : DEFAULT_STRATEGY;
+        MetricsExporter exporter = MetricsExporter.fromProperties();
+        try (GameServer gameServer = new GameServer(new InetSocketAddress(port), config, strategy)) {
+            gameServer.setComputerPacing(TurnPacing.scheduled(Long.getLong("battleship.server.delay", 0)));
+            System.out.println("Game server is listening on port " + gameServer.getPort() + ", field " + config);
+            gameServer.run();
+        } finally {
+            if (exporter != null) exporter.close();
+        }
+    }
+
+    void setComputerPacing(TurnPacing pacing) {
+        computerPacing = pacing != null ? pacing : TurnPacing.NONE;
+    }
+
+    int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    GameConfig getConfig() {
+        return config;
+    }
+
+    ExecutorService getComputers() {
+        return computers;
+    }
+
+    int getConnectionsNumber() {
+        return connections.get();
+    }
+
+    long getGamesFinished() {
+        return gamesFinished.get();
+    }
+
+    /**
+     * Runs the task in the selector thread
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Serves connections until {@link #stop()}
+     */
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                log.write(Logger.Level.ERROR, "Selector failed, server is stopped", e);
+                return;
+            }
+            for (Runnable task; (task = tasks.poll()) != null; ) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.write(Logger.Level.ERROR, "Task of the server failed", e);
+                }
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) continue;
+                if (key.isAcceptable()) {
+                    accept();
+                    continue;
+                }
+                Connection connection = (Connection) key.attachment();
+                try {
+                    if (key.isReadable()) connection.read();
+                    if (key.isValid() && key.isWritable()) connection.flush();
+                } catch (IOException e) {
+                    log.write(Logger.Level.DEBUG, "Connection {} failed: {}", connection.getName(), e.getMessage());
+                    connection.close();
+                } catch (RuntimeException e) {
+                    // one broken game shouldn't stop the server
+                    log.write(Logger.Level.ERROR, "Connection " + connection.getName() + " is closed because of the error", e);
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                Connection connection = new Connection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connections.incrementAndGet();
+                connection.send("WELCOME BattleShip " + config);
+            }
+        } catch (IOException e) {
+            log.write(Logger.Level.WARN, "Can't accept connection", e);
+        }
+    }
+
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stop();
+        computers.shutdownNow();
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    void gameFinished(String winner, int moves) {
+        gamesFinished.incrementAndGet();
+        log.write(Logger.Level.DEBUG, "Game finished, {} won after {} moves", winner, moves);
+    }
+
+    /**
+     * Commands that are not about the current game
+     */
+    private void handle(Connection connection, String line) {
+        String[] words = line.trim().split("\\s+");
+        if (words[0].isEmpty()) return;
+        String command = words[0].toUpperCase(Locale.ROOT);
+        String[] args = new String[words.length - 1];
+        System.arraycopy(words, 1, args, 0, args.length);
+        switch (command) {
+            case "NAME":
+                if (args.length != 1) connection.send("ERROR Usage: NAME name");
+                else {
+                    connection.name = args[0];
+                    connection.send("OK");
+                }
+                break;
+            case "NEW":
+                if (connection.session != null) connection.send("ERROR Leave the current game first");
+                else if (args.length > 0 && args[0].equalsIgnoreCase("HUMAN")) newHumanGame(connection);
+                else newComputerGame(connection, args.length > 1 ? args[1] : strategy);
+                break;
+            case "LEAVE":
+                if (connection.session != null) connection.session.leave(connection);
+                if (waiting == connection) waiting = null;
+                connection.send("OK");
+                break;
+            case "QUIT":
+                connection.send("BYE");
+                connection.closeAfterFlush();
+                break;
+            default:
+                if (connection.session != null) connection.session.handle(connection, command, args);
+                else connection.send("ERROR Start a game with NEW first");
+        }
+    }
+
+    private void newComputerGame(Connection connection, String name) {
+        ShotStrategy shotStrategy;
+        try {
+            shotStrategy = Strategies.createShotStrategy(name);
+        } catch (IllegalArgumentException e) {
+            connection.send("ERROR " + e.getMessage());
+            return;
+        }
+        MachineLogic computer = new MachineLogic("Computer", config, shotStrategy, new LegalPlacementStrategy());
+        computer.setPacing(computerPacing);
+        GameSession.withComputer(this, connection, computer, random.split());
+    }
+
+    private void newHumanGame(Connection connection) {
+        if (waiting == null || waiting == connection) {
+            waiting = connection;
+            connection.send("WAIT");
+            return;
+        }
+        Connection first = waiting;
+        waiting = null;
+        GameSession.withHuman(this, first, connection, random.split());
+    }
+
+    /**
+     * One client. Lines are read from and written to its buffers only in the selector thread.
+     */
+    final class Connection {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private final ByteBuffer input = ByteBuffer.allocate(1024);
+        private final StringBuilder line = new StringBuilder();
+
+        /**
+         * Answers that are not written yet, the buffer is kept ready for putting
+         */
+        private ByteBuffer output = ByteBuffer.allocate(256);
+        private boolean closing = false;
+
+        private String name = "Player";
+        private GameSession session = null;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void setSession(GameSession session) {
+            this.session = session;
+        }
+
+        private void read() throws IOException {
+            int read = channel.read(input);
+            if (read < 0) {
+                close();
+                return;
+            }
+            input.flip();
+            while (input.hasRemaining() && key.isValid()) {
+                byte b = input.get();
+                if (b == '\n') {
+                    String text = line.toString();
+                    line.setLength(0);
+                    handle(this, text);
+                } else if (b != '\r') {
+                    if (line.length() == MAX_LINE) {
+                        send("ERROR Line is too long");
+                        closeAfterFlush();
+                        break;
+                    }
+                    line.append((char) (b & 0xFF));
+                }
+            }
+            input.clear();
+        }
+
+        /**
+         * Writes the line to the client. What doesn't fit the socket is written when it is ready.
+         */
+        void send(String text) {
+            if (closing || !key.isValid()) return;
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (output.remaining() < bytes.length + 1) {
+                int needed = output.position() + bytes.length + 1;
+                if (needed > MAX_OUTPUT) {
+                    log.write(Logger.Level.WARN, "Connection {} doesn't read answers and is closed", name);
+                    close();
+                    return;
+                }
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, output.capacity() * 2));
+                output.flip();
+                output = bigger.put(output);
+            }
+            output.put(bytes).put((byte) '\n');
+            try {
+                flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void flush() throws IOException {
+            output.flip();
+            channel.write(output);
+            output.compact();
+            if (output.position() > 0) key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            else {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                if (closing) close();
+            }
+        }
+
+        /**
+         * Closes the connection when all answers are written
+         */
+        private void closeAfterFlush() {
+            if (!key.isValid()) return;
+            closing = true;
+            key.interestOps(SelectionKey.OP_WRITE);
+        }
+
+        private void close() {
+            if (!key.isValid()) return;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.write(Logger.Level.DEBUG, "Can't close connection {}: {}", name, e.getMessage());
+            }
+            connections.decrementAndGet();
+            if (waiting == this) waiting = null;
+            if (session != null) session.leave(this);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * One game at the {@link GameServer}: the {@link GameEngine} with two players and connections of those who are
+ * playing remotely (the connection of the computer is null). Everything the session keeps is two players with their fields.
+ *
+ * Commands of connections are turned into events of the engine and events of the engine are turned into answers,
+ * all in the thread of the server. The computer chooses every shoot in the executor, reading only the view
+ * of the human's field, and the shoot itself is made by the engine when the server thread gets it back.
+ */
+final class GameSession implements GameEngine.Listener {
+    private final GameServer server;
+    private final GameEngine engine;
+    private final GameServer.Connection[] connections;
+    private final SplittableRandom random;
+
+    /**
+     * The player who left the game, -1 if nobody did
+     */
+    private int left = -1;
+    private final long started = System.nanoTime();
+
+    private GameSession(GameServer server, Player first, Player second, GameServer.Connection[] connections, SplittableRandom random) {
+        this.server = server;
+        this.connections = connections;
+        this.random = random;
+        engine = new GameEngine(first, second, random.nextBoolean());
+        engine.setListener(this);
+    }
+
+    /**
+     * Starts the game of the human against the computer. The computer takes its fleet from the {@link FleetPool},
+     * usually it is ready before the human reads the greeting.
+     */
+    static GameSession withComputer(GameServer server, GameServer.Connection human, MachineLogic computer, SplittableRandom random) {
+        RemotePlayer player = new RemotePlayer(human.getName(), server.getConfig());
+        computer.setRandom(random.split());
+        GameSession session = new GameSession(server, player, computer, new GameServer.Connection[]{human, null}, random);
+        session.begin();
+        FleetPool.forConfig(server.getConfig()).take().whenComplete((fleet, error) -> server.execute(() -> {
+            if (error != null) session.computerFailed(1, error);
+            else if (session.engine.getState() == GameEngine.State.PLACEMENT) {
+                computer.placeFleet(fleet);
+                session.engine.shipsPlaced(1);
+            }
+        }));
+        return session;
+    }
+
+    /**
+     * Starts the game of two humans
+     */
+    static GameSession withHuman(GameServer server, GameServer.Connection first, GameServer.Connection second, SplittableRandom random) {
+        GameConfig config = server.getConfig();
+        GameSession session = new GameSession(server, new RemotePlayer(first.getName(), config),
+                new RemotePlayer(second.getName(), config), new GameServer.Connection[]{first, second}, random);
+        session.begin();
+        return session;
+    }
+
+    private void begin() {
+        for (int i = 0; i < 2; i++) {
+            if (connections[i] == null) continue;
+            connections[i].setSession(this);
+            connections[i].send("GAME " + server.getConfig() + " VS " + engine.getPlayer(1 - i).getName());
+            connections[i].send("SHIPS " + ((RemotePlayer) engine.getPlayer(i)).getShipsToPlace());
+        }
+    }
+
+    GameEngine.State getState() {
+        return engine.getState();
+    }
+
+    /**
+     * Handles a game command of one of players
+     */
+    void handle(GameServer.Connection connection, String command, String[] args) {
+        int me = connection == connections[0] ? 0 : 1;
+        if (engine.getState() == GameEngine.State.FINISHED) {
+            connection.send("ERROR The game is over");
+            return;
+        }
+        switch (command) {
+            case "PLACE":
+                place(me, args);
+                break;
+            case "AUTO":
+                autoPlace(me);
+                break;
+            case "FIRE":
+                fire(me, args);
+                break;
+            case "BOARD":
+                board(me);
+                break;
+            default:
+                connection.send("ERROR Unknown command " + command);
+        }
+    }
+
+    private void place(int me, String[] args) {
+        RemotePlayer player = (RemotePlayer) engine.getPlayer(me);
+        GameServer.Connection connection = connections[me];
+        if (engine.getState() != GameEngine.State.PLACEMENT || player.isPlaced()) {
+            connection.send("ERROR Ships are placed already");
+            return;
+        }
+        if (args.length < 1 || args.length > 2) {
+            connection.send("ERROR Usage: PLACE A1 [A4]");
+            return;
+        }
+        int start = parseCell(args[0]);
+        int end = args.length > 1 ? parseCell(args[1]) : start;
+        if (start < 0 || end < 0) {
+            connection.send("ERROR Bad coordinates");
+            return;
+        }
+        try {
+            player.placeShip(Coordinates.x(start), Coordinates.y(start), Coordinates.x(end), Coordinates.y(end));
+        } catch (ShipPlacementException e) {
+            connection.send("ERROR " + e.getMessage());
+            return;
+        }
+        if (player.isPlaced()) placed(me);
+        else connection.send("SHIPS " + player.getShipsToPlace());
+    }
+
+    private void autoPlace(int me) {
+        RemotePlayer player = (RemotePlayer) engine.getPlayer(me);
+        if (engine.getState() != GameEngine.State.PLACEMENT || player.isPlaced()) {
+            connections[me].send("ERROR Ships are placed already");
+            return;
+        }
+        player.placeRandomly(random);
+        placed(me);
+    }
+
+    private void placed(int me) {
+        connections[me].send("READY");
+        if (!engine.isPlaced(1 - me)) connections[me].send("WAIT");
+        engine.shipsPlaced(me);
+    }
+
+    private void fire(int me, String[] args) {
+        GameServer.Connection connection = connections[me];
+        if (engine.getAttacker() != me) {
+            connection.send("ERROR Not your turn");
+            return;
+        }
+        int cell = args.length == 1 ? parseCell(args[0]) : -1;
+        if (cell < 0) {
+            connection.send("ERROR Usage: FIRE A1");
+            return;
+        }
+        engine.shoot(me, Coordinates.x(cell), Coordinates.y(cell));
+    }
+
+    @Override
+    public void shot(GameEngine game, int shooter, int x, int y, int result) {
+        String shot = resultName(result) + " " + Coordinates.toString(x, y);
+        if (connections[shooter] != null) connections[shooter].send(shot);
+        if (connections[1 - shooter] != null) connections[1 - shooter].send("ENEMY " + shot);
+    }
+
+    @Override
+    public void stateChanged(GameEngine game, GameEngine.State state) {
+        if (state == GameEngine.State.FINISHED) {
+            finished();
+            return;
+        }
+        int attacker = game.getAttacker();
+        if (attacker < 0) return;
+        for (int i = 0; i < 2; i++) {
+            if (connections[i] != null) connections[i].send(attacker == i ? "TURN YOU" : "TURN ENEMY");
+        }
+        if (connections[attacker] == null) computerShot(attacker);
+    }
+
+    /**
+     * The computer chooses its shoot in the executor. Nothing is changed there except the strategy,
+     * so the server thread could read fields meanwhile.
+     * The pause of the computer's pacing is waited on the shared timer before that, and the strategy is run
+     * by the executor, not by the timer thread, so a slow strategy doesn't hold up pauses of other games.
+     */
+    private void computerShot(int computer) {
+        MachineLogic player = (MachineLogic) engine.getPlayer(computer);
+        BoardView enemy = engine.getPlayer(1 - computer).getObserverView();
+        player.getPacing().delay().thenRunAsync(() -> {
+            try {
+                int shot = player.chooseShot(enemy);
+                server.execute(() -> computerShot(computer, shot));
+            } catch (RuntimeException e) {
+                server.execute(() -> computerFailed(computer, e));
+            }
+        }, server.getComputers());
+    }
+
+    private void computerShot(int computer, int shot) {
+        if (engine.getState() == GameEngine.State.FINISHED) return;   // human left while computer was thinking
+        int result = engine.shoot(computer, Coordinates.x(shot), Coordinates.y(shot));
+        ((MachineLogic) engine.getPlayer(computer)).shotResult(shot, result);
+        // after a miss the turn was given to the human by the engine
+        if (engine.getAttacker() == computer) computerShot(computer);
+    }
+
+    private void computerFailed(int computer, Throwable error) {
+        if (engine.getState() == GameEngine.State.FINISHED) return;
+        Logger.getInstance().write(Logger.Level.ERROR, "Computer failed to make its turn", error);
+        connections[1 - computer].send("ERROR Computer failed, the game is over");
+        engine.resign(computer);
+    }
+
+    private void finished() {
+        int winner = engine.getWinner();
+        for (int i = 0; i < 2; i++) {
+            if (connections[i] == null || i == left) continue;
+            connections[i].send(engine.isResigned() ? "LEFT" : i == winner ? "WIN" : "LOSE");
+            connections[i].setSession(null);
+        }
+        if (!engine.isResigned()) {
+            Player first = engine.getPlayer(0);
+            Player second = engine.getPlayer(1);
+            server.gameFinished(engine.getPlayer(winner).getName(),
+                    first.getTheNumberOfMovesPlayerDid() + second.getTheNumberOfMovesPlayerDid());
+            // names of humans are not keys of metrics, there would be too many of them
+            Metrics metrics = Metrics.getInstance();
+            metrics.histogram("game.duration_us").record((System.nanoTime() - started) / 1000);
+            for (int i = 0; i < 2; i++) {
+                metrics.gameFinished(connections[i] != null ? "human" : "computer", engine.getPlayer(i), i == winner);
+            }
+        }
+    }
+
+    /**
+     * Player left the game or was disconnected. The other one wins.
+     */
+    void leave(GameServer.Connection connection) {
+        if (engine.getState() == GameEngine.State.FINISHED) return;
+        left = connection == connections[0] ? 0 : 1;
+        connection.setSession(null);
+        engine.resign(left);
+    }
+
+    /**
+     * Sends both fields: rows of the own field with ships and of the enemy's one as this player sees it
+     */
+    private void board(int me) {
+        GameServer.Connection connection = connections[me];
+        Player player = engine.getPlayer(me);
+        Player enemy = engine.getPlayer(1 - me);
+        GameConfig config = server.getConfig();
+        StringBuilder line = new StringBuilder();
+        for (int y = 0; y < config.getHeight(); y++) {
+            line.setLength(0);
+            line.append("ROW ").append(y + 1).append(' ').append(player.field.getLine(y)).append(' ');
+            for (int x = 0; x < config.getWidth(); x++) {
+                line.append(enemy.getCellSafe(x, y));
+            }
+            connection.send(line.toString());
+        }
+    }
+
+    /**
+     * Parses coordinates like "B4" (letters are not case sensitive). Returns packed coordinates or -1.
+     */
+    private int parseCell(String text) {
+        int digits = 0;
+        while (digits < text.length() && !Character.isDigit(text.charAt(digits))) {
+            digits++;
+        }
+        if (digits == 0 || digits == text.length() || text.length() - digits > 5) return -1;
+        int x = Coordinates.parseColumn(text.substring(0, digits).toUpperCase());
+        int y;
+        try {
+            y = Integer.parseInt(text.substring(digits)) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        GameConfig config = server.getConfig();
+        if (x < 0 || x >= config.getWidth() || y < 0 || y >= config.getHeight()) return -1;
+        return Coordinates.pack(x, y);
+    }
+
+    private static String resultName(int result) {
+        switch (result) {
+            case 0:
+                return "MISS";
+            case 1:
+                return "HIT";
+            case 2:
+                return "KILL";
+            default:
+                return "ALREADY";
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Places ships only where they could be placed, choosing one of the legal placements with equal probability,
+ * so the field never refuses it and nothing is allocated or thrown.
+ *
+ * At first it tries a few random placements from the {@link PlacementTable}: while the field is mostly empty
+ * one of them is legal, so big fields cost the same as small ones. If all of them are taken
+ * it walks through the whole table once and chooses one of the legal ones (reservoir sampling).
+ *
+ * Returns -1 if there are no legal placements for the ship left - previously placed ships should be moved then.
+ */
+class LegalPlacementStrategy implements PlacementStrategy {
+    /**
+     * How many random placements are checked before walking through the whole table
+     */
+    private static final int RANDOM_ATTEMPTS = 32;
+
+    @Override
+    public int nextPlacement(BoardView field, int numberOfDecks, SplittableRandom random) {
+        PlacementTable table = PlacementTable.forDecks(field.getConfig(), numberOfDecks);
+        if (table.size() == 0) return -1;
+        for (int i = 0; i < RANDOM_ATTEMPTS; i++) {
+            int placement = table.getPlacement(random.nextInt(table.size()));
+            if (isLegal(field, placement)) return placement;
+        }
+
+        int chosen = -1;
+        int legal = 0;
+        for (int i = 0; i < table.size(); i++) {
+            int placement = table.getPlacement(i);
+            if (isLegal(field, placement) && random.nextInt(++legal) == 0) chosen = placement;
+        }
+        return chosen;
+    }
+
+    private static boolean isLegal(BoardView field, int placement) {
+        return field.canPlaceShip(Coordinates.placementX(placement), Coordinates.placementY(placement),
+                Coordinates.placementDecks(placement), Coordinates.placementByX(placement));
+    }
+}
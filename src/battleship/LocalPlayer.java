@@ -0,0 +1,27 @@
+package battleship;
+
+/**
+ * Player who places ships and shoots by itself in the calling thread: the human at the console or the computer.
+ * UserInterface and MachineLogic inherits this class. Remote players are moved by commands instead,
+ * see {@link RemotePlayer}.
+ */
+abstract class LocalPlayer extends Player {
+    abstract void placeShipByDeckNumber(int numberOfDecks);
+    abstract void makeShoot(Player enemy);
+
+    protected LocalPlayer() {
+        super();
+    }
+
+    protected LocalPlayer(String name) {
+        super(name);
+    }
+
+    protected LocalPlayer(GameConfig config) {
+        super(config);
+    }
+
+    protected LocalPlayer(String name, GameConfig config) {
+        super(name, config);
+    }
+}
@@ -0,0 +1,155 @@
+package battleship;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free queue of log events for many writing threads and one reading thread.
+ * All slots are allocated once. Every slot has a sequence number telling whether it is free for the writer
+ * with some position ({@code sequence == position}) or filled for the reader ({@code sequence == position + 1}).
+ */
+final class LogRingBuffer {
+    /**
+     * What to do with the event when the buffer is full
+     */
+    enum OverflowPolicy {
+        /**
+         * Event is thrown away and only counted, so the game never waits for the disk
+         */
+        DROP,
+
+        /**
+         * Writing thread waits until the background writer frees some slot
+         */
+        BLOCK
+    }
+
+    static final int MESSAGE = 0;
+    static final int SEPARATOR = 1;
+
+    /**
+     * Message with "{}" placeholders for arguments
+     */
+    static final int FORMATTED = 2;
+
+    /**
+     * How many arguments of the message could be formatted by the writer thread
+     */
+    static final int MAX_ARGUMENTS = 3;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] times;
+    private final int[] kinds;
+    private final Logger.Level[] levels;
+    private final String[] texts;
+    private final Throwable[] errors;
+    private final Object[][] arguments;
+
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head = 0;  // used only by the reader
+
+    private volatile OverflowPolicy policy = OverflowPolicy.DROP;
+
+    /**
+     * Capacity is rounded up to the power of 2
+     */
+    LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        times = new long[size];
+        kinds = new int[size];
+        levels = new Logger.Level[size];
+        texts = new String[size];
+        errors = new Throwable[size];
+        arguments = new Object[size][MAX_ARGUMENTS];
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    void setPolicy(OverflowPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Puts the event into the buffer. Returns "false" if it was dropped because the buffer is full.
+     * Text could have up to {@link #MAX_ARGUMENTS} "{}" placeholders for arguments.
+     */
+    boolean offer(long time, int kind, Logger.Level level, String text, Throwable error,
+                  Object argument1, Object argument2, Object argument3) {
+        long position;
+        int slot;
+        while (true) {
+            position = tail.get();
+            slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) break;
+            } else if (difference < 0) {
+                // the reader didn't free this slot yet: the buffer is full
+                if (policy == OverflowPolicy.DROP) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                LockSupport.parkNanos(100_000L);
+            }
+            // else another writer took this position, let's try the next one
+        }
+        times[slot] = time;
+        kinds[slot] = kind;
+        levels[slot] = level;
+        texts[slot] = text;
+        errors[slot] = error;
+        Object[] slotArguments = arguments[slot];
+        slotArguments[0] = argument1;
+        slotArguments[1] = argument2;
+        slotArguments[2] = argument3;
+        sequences.set(slot, position + 1);   // publishing the event to the reader
+        return true;
+    }
+
+    /**
+     * Passes every published event to the consumer and frees their slots.
+     * Must be called by the only one reading thread. Returns the number of consumed events.
+     */
+    int drain(Consumer consumer) {
+        int count = 0;
+        while (true) {
+            int slot = (int) head & mask;
+            if (sequences.get(slot) != head + 1) return count;
+            Object[] slotArguments = arguments[slot];
+            consumer.accept(times[slot], kinds[slot], levels[slot], texts[slot], errors[slot], slotArguments);
+            texts[slot] = null;
+            errors[slot] = null;
+            slotArguments[0] = slotArguments[1] = slotArguments[2] = null;
+            sequences.set(slot, head + mask + 1);   // the slot is free for the next round
+            head++;
+            count++;
+        }
+    }
+
+    /**
+     * Returns "true" if there is no published event to drain. Must be called by the reading thread.
+     */
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    /**
+     * Returns the number of dropped events since the previous call and resets it.
+     */
+    long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+
+    interface Consumer {
+        /**
+         * Arguments array is reused, so it must not be saved anywhere.
+         */
+        void accept(long time, int kind, Logger.Level level, String text, Throwable error, Object[] arguments);
+    }
+}
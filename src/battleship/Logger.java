@@ -4,22 +4,76 @@ import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * Logging actions class.
+ *
+ * Messages are not written by calling threads: they are put into the {@link LogRingBuffer}
+ * and the background "Logger writer" thread formats them and writes to the file in batches.
+ * The file is flushed when there are no more messages in the buffer, so game threads never wait for the disk.
+ * There is no need to synchronize on the logger before writing.
+ *
+ * Every message has a {@link Level}. Messages below the current level are thrown away before anything is done:
+ * no timestamp, no formatting, no event in the buffer. To make disabled messages free, don't concatenate them
+ * at the call site: pass "{}" placeholders with arguments (they are formatted by the writer thread),
+ * a {@link Supplier}, or check {@link #isEnabled(Level)} first.
+ * The level is taken from the "battleship.log.level" system property, INFO by default.
  */
 class Logger implements Closeable {
+    enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
 
     private static Logger instance = null;
     // TODO get date format from properties
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("EEEE, d MMMM y HH:mm:ss ('GMT' XXX) : ");
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("EEEE, d MMMM y HH:mm:ss ('GMT' XXX) : ").withZone(ZoneId.systemDefault());
     private static BufferedWriter writer = null;
 
+    private static final LogRingBuffer BUFFER = new LogRingBuffer(8192);
+    private static final Object[] NO_ARGUMENTS = new Object[LogRingBuffer.MAX_ARGUMENTS];
+
+    /**
+     * Messages with lower levels are not logged. Headless games are raising it so chatter about every shoot costs nothing.
+     */
+    private static volatile Level level = Level.valueOf(System.getProperty("battleship.log.level", "INFO").toUpperCase());
+
+    private static volatile boolean closed = false;
+
+    private static Thread writerThread = null;
+
+    /**
+     * Set by the writer thread before it parks with nothing to write, so writing threads know they should unpark it.
+     * While the writer is busy they don't touch it at all.
+     */
+    private static volatile boolean writerIdle = false;
+
+    /**
+     * Timestamp is the same for every message within a second, so it is formatted only once a second.
+     * Used only by the writer thread.
+     */
+    private static long cachedSecond = Long.MIN_VALUE;
+    private static String cachedTime = "";
+
     static {
         try {
             writer = new BufferedWriter(new FileWriter("./game.log", true));
+            writerThread = new Thread(Logger::writeInBackground, "Logger writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    shutdown();
+                } catch (IOException e) {
+                    // nothing to do while JVM is stopping
+                }
+            }, "Logger shutdown"));
         } catch (IOException e) {
             System.out.println("Can't create log file. Program terminated.");
             e.printStackTrace();
@@ -30,7 +84,7 @@ class Logger implements Closeable {
         if (writer == null) System.exit(1);
     }
 
-    public static Logger getInstance() {
+    public static synchronized Logger getInstance() {
         if (instance == null) {
             instance = new Logger();
             instance.write("Program started, logger created.");
@@ -38,45 +92,200 @@ class Logger implements Closeable {
         return instance;
     }
 
+    static void setLevel(Level value) {
+        level = value;
+    }
+
+    static Level getLevel() {
+        return level;
+    }
+
+    static boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) >= 0 && messageLevel != Level.OFF;
+    }
+
+    /**
+     * Sets what to do with messages when the background writer can't keep up with them.
+     * Messages are dropped by default.
+     */
+    static void setOverflowPolicy(LogRingBuffer.OverflowPolicy policy) {
+        BUFFER.setPolicy(policy);
+    }
+
+    /**
+     * Writes INFO message
+     */
     public void write(String text) {
-        try {
-            writer.write(getTime() + text + "\n");
-        } catch (IOException e) {
-            System.out.println("There was some error while writing to log.\n");
-            e.printStackTrace();
-        }
+        write(Level.INFO, text);
     }
 
+    /**
+     * Writes WARN message with the exception
+     */
     public void write(String text, Throwable error) {
+        write(Level.WARN, text, error);
+    }
+
+    /**
+     * Writes the separator line
+     */
+    public void write() {
+        if (!isEnabled(Level.INFO) || closed) return;
+        publish(0L, LogRingBuffer.SEPARATOR, Level.INFO, null, null, null, null, null);
+    }
+
+    public void write(Level messageLevel, String text) {
+        if (!isEnabled(messageLevel) || closed) return;
+        publish(System.currentTimeMillis(), LogRingBuffer.MESSAGE, messageLevel, text, null, null, null, null);
+    }
+
+    public void write(Level messageLevel, String text, Throwable error) {
+        if (!isEnabled(messageLevel) || closed) return;
+        publish(System.currentTimeMillis(), LogRingBuffer.MESSAGE, messageLevel, text, error, null, null, null);
+    }
+
+    /**
+     * The message is built by the supplier only if its level is enabled
+     */
+    public void write(Level messageLevel, Supplier<String> message) {
+        if (!isEnabled(messageLevel) || closed) return;
+        publish(System.currentTimeMillis(), LogRingBuffer.MESSAGE, messageLevel, message.get(), null, null, null, null);
+    }
+
+    /**
+     * The "{}" placeholder in the format is replaced with the argument by the writer thread
+     */
+    public void write(Level messageLevel, String format, Object argument) {
+        if (!isEnabled(messageLevel) || closed) return;
+        publish(System.currentTimeMillis(), LogRingBuffer.FORMATTED, messageLevel, format, null, argument, null, null);
+    }
+
+    public void write(Level messageLevel, String format, Object argument1, Object argument2) {
+        if (!isEnabled(messageLevel) || closed) return;
+        publish(System.currentTimeMillis(), LogRingBuffer.FORMATTED, messageLevel, format, null, argument1, argument2, null);
+    }
+
+    public void write(Level messageLevel, String format, Object argument1, Object argument2, Object argument3) {
+        if (!isEnabled(messageLevel) || closed) return;
+        publish(System.currentTimeMillis(), LogRingBuffer.FORMATTED, messageLevel, format, null, argument1, argument2, argument3);
+    }
+
+    /**
+     * Puts the event into the buffer and wakes the writer thread up if it is parked
+     */
+    private static void publish(long time, int kind, Level messageLevel, String text, Throwable error,
+                                Object argument1, Object argument2, Object argument3) {
+        if (BUFFER.offer(time, kind, messageLevel, text, error, argument1, argument2, argument3) && writerIdle) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Writes every message that is still in the buffer and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        shutdown();
+    }
+
+    private static void shutdown() throws IOException {
+        synchronized (Logger.class) {
+            if (closed) return;
+            closed = true;
+        }
+        LockSupport.unpark(writerThread);
         try {
-            writer.write(getTime() + text + "\n");
-            writer.write("\t" + error.toString() + "\n");
-            if (!(error instanceof ShipPlacementException)) {
-                for (StackTraceElement x : error.getStackTrace()) {
-                    writer.write("\t\t" + x.toString() + "\n");
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+
+    /**
+     * Body of the writer thread: drains the buffer until the logger is closed.
+     * File is flushed only when the buffer becomes empty, so a lot of messages are written with one flush.
+     * Then the thread parks until the next message: it marks itself idle first and checks the buffer once more,
+     * so a message published meanwhile either is seen by this check or unparks it.
+     */
+    private static void writeInBackground() {
+        boolean unflushed = false;
+        while (true) {
+            boolean stopping = closed;
+            int written = BUFFER.drain(Logger::writeEvent);
+            long dropped = BUFFER.takeDropped();
+            if (dropped > 0) {
+                writeEvent(System.currentTimeMillis(), LogRingBuffer.MESSAGE, Level.WARN,
+                        dropped + " log messages were dropped because the log buffer was full.", null, NO_ARGUMENTS);
+                written++;
+            }
+            if (written > 0) {
+                unflushed = true;
+                continue;
+            }
+            if (unflushed) {
+                try {
+                    writer.flush();
+                } catch (IOException e) {
+                    System.out.println("There was some error while writing to log.\n");
+                    e.printStackTrace();
                 }
+                unflushed = false;
             }
-        } catch (IOException e) {
-            System.out.println("There was some error while writing to log.\n");
-            e.printStackTrace();
+            if (stopping) return;
+            writerIdle = true;
+            if (BUFFER.isEmpty() && !closed) LockSupport.park();
+            writerIdle = false;
         }
     }
 
-    public void write() {
+    private static void writeEvent(long time, int kind, Level messageLevel, String text, Throwable error, Object[] arguments) {
         try {
-            writer.write("----------\n");
+            if (kind == LogRingBuffer.SEPARATOR) {
+                writer.write("----------\n");
+                return;
+            }
+            writer.write(getTime(time));
+            writer.write(messageLevel.name());
+            writer.write(' ');
+            if (kind == LogRingBuffer.FORMATTED) writeFormatted(text, arguments);
+            else writer.write(text);
+            writer.write('\n');
+            if (error != null) {
+                writer.write("\t" + error.toString() + "\n");
+                if (!(error instanceof ShipPlacementException)) {
+                    for (StackTraceElement x : error.getStackTrace()) {
+                        writer.write("\t\t" + x.toString() + "\n");
+                    }
+                }
+            }
         } catch (IOException e) {
             System.out.println("There was some error while writing to log.\n");
             e.printStackTrace();
         }
     }
 
-    @Override
-    public void close() throws IOException {
-        writer.close();
+    /**
+     * Writes the text replacing "{}" placeholders with arguments one by one
+     */
+    private static void writeFormatted(String text, Object[] arguments) throws IOException {
+        int start = 0;
+        for (int i = 0; i < arguments.length; i++) {
+            int placeholder = text.indexOf("{}", start);
+            if (placeholder < 0) break;
+            writer.write(text, start, placeholder - start);
+            writer.write(String.valueOf(arguments[i]));
+            start = placeholder + 2;
+        }
+        writer.write(text, start, text.length() - start);
     }
 
-    private String getTime() {
-        return DATE_FORMAT.format(new Date());
+    private static String getTime(long time) {
+        long second = time / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTime = DATE_FORMAT.format(Instant.ofEpochMilli(time));
+        }
+        return cachedTime;
     }
 }
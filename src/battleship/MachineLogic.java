@@ -1,20 +1,63 @@
 package battleship;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * This class contains methods for implementation some computer's logic in this game.
+ * Where to place ships and where to shoot is decided by strategies, this class only applies their decisions.
+ * Every computer has its own random generator for strategies, so there is no shared state between games
+ * and the game of computers with known seeds could be played again exactly the same way.
  */
-class MachineLogic extends Player implements Runnable {
-    private static final Random random = new Random();
+class MachineLogic extends LocalPlayer implements Runnable {
+    private final ShotStrategy shotStrategy;
+    private final PlacementStrategy placementStrategy;
+
+    /**
+     * How long computer will "think" after every shoot
+     */
+    private TurnPacing pacing = TurnPacing.fixed(2000L);
+
+    private SplittableRandom random = new SplittableRandom();
 
     MachineLogic() {
         this("Computer");
     }
 
     MachineLogic(String name) {
-        super();
+        this(name, new RandomShotStrategy(), new LegalPlacementStrategy());
+    }
+
+    MachineLogic(String name, ShotStrategy shotStrategy, PlacementStrategy placementStrategy) {
+        this(name, GameConfig.CLASSIC, shotStrategy, placementStrategy);
+    }
+
+    MachineLogic(String name, GameConfig config, ShotStrategy shotStrategy, PlacementStrategy placementStrategy) {
+        super(config);
         setName((name != null && !name.isEmpty()) ? name : "Computer");
+        this.shotStrategy = shotStrategy;
+        this.placementStrategy = placementStrategy;
+    }
+
+    /**
+     * Sets the pause after every shoot. {@link TurnPacing#NONE} is used for headless games.
+     */
+    void setPacing(TurnPacing pacing) {
+        this.pacing = pacing != null ? pacing : TurnPacing.NONE;
+    }
+
+    TurnPacing getPacing() {
+        return pacing;
+    }
+
+    /**
+     * Sets the generator used for placing ships and shooting. Should be called before the game.
+     */
+    void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    void setSeed(long seed) {
+        setRandom(new SplittableRandom(seed));
     }
 
     @Override
@@ -24,79 +67,124 @@ class MachineLogic extends Player implements Runnable {
 
     @Override
     protected void placeShips() {
-        for (int i = 4; i > 0; i--) {
-            placeShipByDeckNumber(i);
-        }
-        synchronized (log) {
-            log.write("All computer's ships were placed. Cleaning field...");
-        }
+        boolean placed;
+        do {
+            placed = true;
+            for (int i = getConfig().getMaxDecks(); i > 0 && placed; i--) {
+                placed = placeShipsWithDecks(i);
+            }
+            if (!placed) {
+                // previous ships took all the room for this one, so let's start from the scratch
+                log.write("There is no room for computer's ship. Placing all ships again...");
+                resetField();
+            }
+        } while (!placed);
+        log.write("All computer's ships were placed. Cleaning field...");
         clearField();
     }
 
     @Override
     void placeShipByDeckNumber(int numberOfDecks) {
-        for (int i = numberOfDecks - 1; i < 4; i++) {   // for each ship of this type (with same number of decks)
+        if (!placeShipsWithDecks(numberOfDecks)) {
+            throw new IllegalStateException("There is no room for ship with " + numberOfDecks + " decks");
+        }
+    }
+
+    /**
+     * Places every ship with some number of decks. Placements refused by the field are asked from the strategy again.
+     * Returns "false" if the strategy says there is no room for the ship at all.
+     */
+    private boolean placeShipsWithDecks(int numberOfDecks) {
+        for (int i = 0; i < getConfig().getShipsNumber(numberOfDecks); i++) {   // for each ship of this type (with same number of decks)
             boolean flag = true;
-            String start, end = "";
+            int placement;
             do {
-                int startX = random.nextInt(10);
-                int startY = random.nextInt(10);
-                int endX = 0, endY = 0;
-                boolean xDirection = random.nextBoolean();
-                start = String.valueOf((char) ('A' + startX)) + (startY + 1);
-                if (numberOfDecks != 1) {
-                    if (xDirection) {
-                        end = String.valueOf((char) ('A' + startX + numberOfDecks - 1)) + (startY + 1);
-                        endX = startX + numberOfDecks - 1;
-                        endY = startY;
-                    }
-                    else {
-                        end = String.valueOf((char) ('A' + startX)) + (startY + numberOfDecks);
-                        endX = startX;
-                        endY = startY + numberOfDecks - 1;
-                    }
+                placement = placementStrategy.nextPlacement(field, numberOfDecks, random);
+                if (placement < 0) return false;
+                int startX = Coordinates.placementX(placement);
+                int startY = Coordinates.placementY(placement);
+                // checking first, so refused placements don't cost an exception
+                if (!field.canPlaceShip(startX, startY, numberOfDecks, Coordinates.placementByX(placement))) {
+                    Field.placementRefused();
+                    continue;
                 }
-
                 try {
                     if (numberOfDecks != 1) {
-                        flag = !putShipsAtField(startX, startY, numberOfDecks, endX, endY);
+                        flag = !putShipsAtField(startX, startY, numberOfDecks,
+                                Coordinates.placementEndX(placement), Coordinates.placementEndY(placement));
                     } else flag = !putShipsAtField(startX, startY);
                 } catch (ShipPlacementException e) {
                     // ok, we cant place ship here. let's try again
                 } catch (Exception e) {
-                    synchronized (log) {
-                        log.write("Something bad happened while placing computer's ships.", e);
-                    }
+                    log.write(Logger.Level.ERROR, "Something bad happened while placing computer's ships.", e);
                 }
             } while (flag);
 
-            synchronized (log) {
-                if (numberOfDecks != 1)
-                    log.write("Computer put his ship with " + numberOfDecks + " decks at: (" + start.toUpperCase() + ", " + end.toUpperCase() + ").");
-                else log.write("Computer put his ship with 1 deck at: (" + start.toUpperCase() + ").");
+            if (Logger.isEnabled(Logger.Level.DEBUG)) {
+                String start = Coordinates.toString(Coordinates.placementX(placement), Coordinates.placementY(placement));
+                if (numberOfDecks != 1) {
+                    String end = Coordinates.toString(Coordinates.placementEndX(placement), Coordinates.placementEndY(placement));
+                    log.write(Logger.Level.DEBUG, "Computer put his ship with " + numberOfDecks + " decks at: (" + start + ", " + end + ").");
+                }
+                else log.write(Logger.Level.DEBUG, "Computer put his ship with 1 deck at: (" + start + ").");
             }
         }
+        return true;
     }
 
     @Override
     void makeShoot(Player enemy) {
-        int x, y;
         boolean repeat;
+        incrementTheNumberOfMovesPlayerDid();
         do {
             if (!enemy.isMoreShips()) break;
-            int[][] cells = enemy.getEmptyCells();
-            int cell = random.nextInt(cells.length);
-            x = cells[cell][0];
-            y = cells[cell][1];
-            repeat = enemy.beingAttacked(x, y) != 0;
-            try {
-                Thread.sleep(2000L);
-            } catch (InterruptedException e) {
-                log.write("Main thread was interrupted while sleeping after computer's turn", e);
-            }
+            repeat = shootOnce(enemy);
+            pause();
         } while (repeat);
     }
 
+    /**
+     * Makes the pause after the shoot, if the pacing blocks the calling thread (see {@link TurnPacing#fixed(long)})
+     */
+    void pause() {
+        try {
+            pacing.pause();
+        } catch (InterruptedException e) {
+            log.write("Main thread was interrupted while sleeping after computer's turn", e);
+        }
+    }
+
+    /**
+     * Shoots at the cell chosen by the strategy. Returns "true" if computer should shoot again.
+     */
+    private boolean shootOnce(Player enemy) {
+        int shot = chooseShot(enemy.getObserverView());
+        int result = enemy.beingAttacked(Coordinates.x(shot), Coordinates.y(shot));
+        shotMade(result);
+        shotResult(shot, result);
+        return result != 0;
+    }
+
+    /**
+     * Chooses the next shoot at the enemy's field without making it, for games driven by {@link GameEngine}.
+     * Only the strategy is changed, so the choice could be made in another thread while the game waits for it.
+     * Returns packed coordinates, see {@link Coordinates#pack(int, int)}.
+     */
+    int chooseShot(BoardView enemy) {
+        GameEvents.ShotDecision event = new GameEvents.ShotDecision();
+        event.start();
+        int shot = shotStrategy.nextShot(enemy, random);
+        event.finish(shotStrategy, shot);
+        return shot;
+    }
+
+    /**
+     * Tells the strategy the result of the shoot from {@link #chooseShot(BoardView)}
+     */
+    void shotResult(int shot, int result) {
+        shotStrategy.shotResult(shot, result);
+    }
+
     @Override
     int beingAttacked(int x, int y) {
         return checkDeckAtField(x, y);
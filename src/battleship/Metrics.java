@@ -0,0 +1,187 @@
+package battleship;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Registry of named counters, histograms and gauges shared by all games of the process.
+ *
+ * Counters are {@link LongAdder}s and histograms are made of them too, so workers of the tournament
+ * and threads of the server are counting without fighting for one cache line.
+ * Hot paths keep the counter they need in a field instead of looking it up by the name every time.
+ * Per-player statistics are collected by {@link Player} itself during the game and added here when the game is over.
+ *
+ * {@link #snapshot()} returns everything as "name value" lines sorted by names,
+ * {@link MetricsExporter} writes them to a file or serves them over HTTP.
+ */
+final class Metrics {
+    private static final Metrics instance = new Metrics();
+
+    private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    static Metrics getInstance() {
+        return instance;
+    }
+
+    LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    /**
+     * The value is asked only when the snapshot is taken
+     */
+    void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Gauge of one counter divided by another one, 0 while the second one is 0
+     */
+    void ratio(String name, String part, String total) {
+        LongAdder partCounter = counter(part);
+        LongAdder totalCounter = counter(total);
+        gauge(name, () -> {
+            long sum = totalCounter.sum();
+            return sum == 0 ? 0 : (double) partCounter.sum() / sum;
+        });
+    }
+
+    /**
+     * Adds statistics of the player after the game. The key should be one of a few names (like "human" or a strategy),
+     * every key makes its own set of metrics.
+     */
+    void gameFinished(String key, Player player, boolean won) {
+        String prefix = "player." + name(key) + ".";
+        counter(prefix + "games").increment();
+        if (won) counter(prefix + "wins").increment();
+        counter(prefix + "moves").add(player.getTheNumberOfMovesPlayerDid());
+        counter(prefix + "shots").add(player.getShotsNumber());
+        counter(prefix + "hits").add(player.getHitsNumber());
+        if (!gauges.containsKey(prefix + "hit_ratio")) ratio(prefix + "hit_ratio", prefix + "hits", prefix + "shots");
+        Histogram shotsToSink = histogram(prefix + "shots_to_sink");
+        for (int i = 0; i < player.getKillsNumber(); i++) {
+            shotsToSink.record(player.getShotsToSink(i));
+        }
+    }
+
+    /**
+     * Makes the name usable in "name value" lines: everything except letters, digits, dots, dashes
+     * and underscores becomes an underscore
+     */
+    static String name(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            boolean allowed = c < 128 && (Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_');
+            result.append(allowed ? c : '_');
+        }
+        return result.toString();
+    }
+
+    /**
+     * Every metric as "name value" lines. Histograms are written as count, mean, percentiles and max.
+     */
+    String snapshot() {
+        Map<String, String> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, String.valueOf(counter.sum())));
+        gauges.forEach((name, gauge) -> values.put(name, String.format("%.4f", gauge.getAsDouble())));
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", String.valueOf(histogram.getCount()));
+            values.put(name + ".mean", String.format("%.2f", histogram.getMean()));
+            values.put(name + ".p50", String.valueOf(histogram.getValueAtPercentile(50)));
+            values.put(name + ".p90", String.valueOf(histogram.getValueAtPercentile(90)));
+            values.put(name + ".p99", String.valueOf(histogram.getValueAtPercentile(99)));
+            values.put(name + ".max", String.valueOf(histogram.getMax()));
+        });
+        StringBuilder result = new StringBuilder();
+        values.forEach((name, value) -> result.append(name).append(' ').append(value).append('\n'));
+        return result.toString();
+    }
+
+    /**
+     * Distribution of non-negative values in fixed memory, like HdrHistogram does it: values below 16 are counted exactly
+     * and every next power of two is split into 8 buckets, so a percentile is off by 12.5% at most.
+     * Buckets are created when the first value gets there.
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int EXACT = SUB_BUCKETS * 2;
+        private static final int BUCKETS = EXACT + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKETS;
+
+        private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long value) {
+            if (value < 0) value = 0;
+            int index = index(value);
+            LongAdder bucket = buckets.get(index);
+            if (bucket == null) {
+                buckets.compareAndSet(index, null, new LongAdder());
+                bucket = buckets.get(index);
+            }
+            bucket.increment();
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getMax() {
+            return max.get();
+        }
+
+        double getMean() {
+            long values = count.sum();
+            return values == 0 ? 0 : (double) sum.sum() / values;
+        }
+
+        /**
+         * Returns the highest value of the bucket where the percentile (from 0 to 100) is, but not more than the max
+         */
+        long getValueAtPercentile(double percentile) {
+            long values = count.sum();
+            if (values == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * values));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                LongAdder bucket = buckets.get(i);
+                if (bucket == null) continue;
+                seen += bucket.sum();
+                if (seen >= rank) return Math.min(highestValue(i), getMax());
+            }
+            return getMax();
+        }
+
+        static int index(long value) {
+            if (value < EXACT) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return EXACT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+        }
+
+        static long highestValue(int index) {
+            if (index < EXACT) return index;
+            int exponent = (index - EXACT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+            int subBucket = (index - EXACT) % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return ((SUB_BUCKETS + subBucket) * width) + width - 1;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package battleship;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes snapshots of {@link Metrics}: writes them to a file every few seconds and/or serves them over HTTP.
+ *
+ * Everything is configured by system properties and nothing is started if they are not set:
+ * "battleship.metrics.file" - the file that is replaced by the new snapshot,
+ * "battleship.metrics.period" - seconds between snapshots, 10 by default,
+ * "battleship.metrics.port" - port of "http://localhost:port/metrics" (only the loopback address is listened to).
+ * The last snapshot is written when the exporter is closed.
+ */
+final class MetricsExporter implements Closeable {
+    private static final Logger log = Logger.getInstance();
+
+    private final Metrics metrics;
+    private final Path file;
+    private final ScheduledExecutorService timer;
+    private final HttpServer server;
+
+    MetricsExporter(Metrics metrics, Path file, long periodSeconds, int port) throws IOException {
+        this.metrics = metrics;
+        this.file = file;
+        if (file != null) {
+            timer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "Metrics writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.scheduleAtFixedRate(this::writeQuietly, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        } else {
+            timer = null;
+        }
+        if (port >= 0) {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = metrics.snapshot().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        } else {
+            server = null;
+        }
+    }
+
+    /**
+     * Starts the exporter of shared metrics configured by system properties. Returns null if nothing is configured
+     * or the exporter can't be started (the game goes on without it).
+     */
+    static MetricsExporter fromProperties() {
+        String file = System.getProperty("battleship.metrics.file");
+        int port = Integer.getInteger("battleship.metrics.port", -1);
+        if (file == null && port < 0) return null;
+        long period = Math.max(1, Long.getLong("battleship.metrics.period", 10));
+        try {
+            MetricsExporter exporter = new MetricsExporter(Metrics.getInstance(), file != null ? Paths.get(file) : null, period, port);
+            if (port >= 0) log.write(Logger.Level.INFO, "Metrics are served at http://localhost:{}/metrics", exporter.getPort());
+            return exporter;
+        } catch (IOException e) {
+            log.write(Logger.Level.WARN, "Metrics exporter is not started", e);
+            return null;
+        }
+    }
+
+    /**
+     * Port of the HTTP server, -1 if there is no server
+     */
+    int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Writes the snapshot to the file. The file is replaced only when everything is written.
+     */
+    void write() throws IOException {
+        if (file == null) return;
+        Path temp = Paths.get(file + ".tmp");
+        Files.write(temp, metrics.snapshot().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeQuietly() {
+        try {
+            write();
+        } catch (IOException e) {
+            log.write(Logger.Level.WARN, "Metrics are not written to " + file, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) server.stop(0);
+        if (timer != null) {
+            timer.shutdownNow();
+            write();
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package battleship;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Strategy that imagines a lot of random enemy's fleets that could be there and shoots at the cell
+ * that is taken by ships in most of them.
+ *
+ * What is known about the enemy's field is kept in two bit sets: cells where ships can't be
+ * (misses, dots and killed ships with cells around them) and wounded decks of ships that are still alive.
+ * Every sample places all remaining ships at random legal placements: not at blocked cells and not touching each other.
+ * If there are wounded decks then the first ship is placed through one of them, and the sample is thrown away
+ * if some wounded deck is not covered at the end. Every accepted sample adds 1 to every cell of its ships.
+ *
+ * Samples are made by a fixed number of workers in the fork/join pool. Every worker has its own bit sets, counters
+ * and random generator (split from the player's one on the first sampling), so sampling never allocates or locks,
+ * and the same samples are made with the same seed on any number of threads.
+ * Every move stops after the given number of samples. The time budget of a move is off by default, so games are
+ * reproducible by the seed; it is set in milliseconds by the "battleship.montecarlo.budget" property, and then
+ * the move also stops when the budget is over and the game depends on the speed of the machine.
+ */
+class MonteCarloShotStrategy implements ShotStrategy {
+    private static final int DEFAULT_SAMPLES = 2000;
+    private static final long DEFAULT_BUDGET_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("battleship.montecarlo.budget", 0));
+
+    /**
+     * Samples of every move are split between this number of workers, whatever the parallelism of the pool is
+     */
+    private static final int WORKERS = 16;
+
+    /**
+     * How many random placements are tried for one ship before the sample is thrown away
+     */
+    private static final int PLACEMENT_ATTEMPTS = 32;
+
+    /**
+     * How often workers are looking at the clock
+     */
+    private static final int CLOCK_MASK = 63;
+
+    private final ForkJoinPool pool;
+    private final int samples;
+    private final long budgetNanos;
+
+    /**
+     * Everything below is created when the strategy sees the enemy's field for the first time
+     */
+    private GameConfig config;
+    private int width;
+    private int height;
+
+    /**
+     * Cells where there can't be alive ships: misses, dots, killed ships and cells around them
+     */
+    private BitBoard blocked;
+
+    /**
+     * Hited decks of ships that are still alive
+     */
+    private BitBoard wounded;
+    private int[] woundedCells;
+    private int woundedCount = 0;
+
+    /**
+     * How many ships of each length are still alive
+     */
+    private int[] remaining;
+
+    /**
+     * Lengths of every alive ship, the longest first
+     */
+    private int[] fleet;
+    private int fleetSize;
+
+    /**
+     * Every placement of ships of each length, looked up once so samplers don't touch the shared map of tables
+     */
+    private PlacementTable[] tables;
+
+    private Sampler[] samplers;
+    private int[] totals;
+
+    MonteCarloShotStrategy() {
+        this(DEFAULT_SAMPLES, DEFAULT_BUDGET_NANOS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Takes the number of samples for every move, the time budget of every move in nanoseconds (0 means no budget)
+     * and the pool where samples are made (all its threads are used)
+     */
+    MonteCarloShotStrategy(int samples, long budgetNanos, ForkJoinPool pool) {
+        if (samples < 1) throw new IllegalArgumentException("Number of samples should be positive: " + samples);
+        if (budgetNanos < 0) throw new IllegalArgumentException("Time budget can't be negative: " + budgetNanos);
+        this.samples = samples;
+        this.budgetNanos = budgetNanos;
+        this.pool = pool;
+    }
+
+    @Override
+    public void start(BoardView enemy) {
+        if (config == null) init(enemy.getConfig());
+    }
+
+    private void init(GameConfig config) {
+        this.config = config;
+        width = config.getWidth();
+        height = config.getHeight();
+        int size = config.getCellsNumber();
+        blocked = new BitBoard(size);
+        wounded = new BitBoard(size);
+        woundedCells = new int[Math.min(size, config.getDecksNumber())];
+        remaining = new int[config.getMaxDecks() + 1];
+        for (int length = 1; length <= config.getMaxDecks(); length++) {
+            remaining[length] = config.getShipsNumber(length);
+        }
+        fleet = new int[config.getShipsNumber()];
+        updateFleet();
+        tables = new PlacementTable[config.getMaxDecks() + 1];
+        for (int length = 1; length <= config.getMaxDecks(); length++) {
+            tables[length] = PlacementTable.forDecks(config, length);
+        }
+        totals = new int[size];
+    }
+
+    /**
+     * Workers are created on the first sampling, because they are taking their generators from the player's one
+     */
+    private void createSamplers(SplittableRandom random) {
+        samplers = new Sampler[Math.min(WORKERS, samples)];
+        for (int i = 0; i < samplers.length; i++) {
+            samplers[i] = new Sampler(totals.length, random.split());
+        }
+    }
+
+    private void updateFleet() {
+        fleetSize = 0;
+        for (int length = remaining.length - 1; length > 0; length--) {
+            for (int i = 0; i < remaining[length]; i++) {
+                fleet[fleetSize++] = length;
+            }
+        }
+    }
+
+    @Override
+    public int nextShot(BoardView enemy, SplittableRandom random) {
+        start(enemy);
+        if (samplers == null) createSamplers(random);
+
+        long deadline = System.nanoTime() + budgetNanos;
+        int quota = (samples + samplers.length - 1) / samplers.length;
+        for (Sampler sampler : samplers) {
+            sampler.reinitialize();
+            sampler.quota = quota;
+            sampler.deadline = deadline;
+        }
+        if (samplers.length == 1) samplers[0].invoke();
+        else pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask.invokeAll(samplers);
+            }
+        });
+
+        int accepted = 0;
+        Arrays.fill(totals, 0);
+        for (Sampler sampler : samplers) {
+            accepted += sampler.accepted;
+            for (int cell = 0; cell < totals.length; cell++) {
+                totals[cell] += sampler.counts[cell];
+            }
+        }
+        int cell = accepted > 0 ? mostCovered(random) : -1;
+        if (cell < 0) return fallback(enemy, random);
+        return Coordinates.pack(cell % width, cell / width);
+    }
+
+    /**
+     * Unknown cell with the biggest number of ships in samples, equal ones are chosen randomly.
+     * Returns -1 if no sample has ships at unknown cells.
+     */
+    private int mostCovered(SplittableRandom random) {
+        int best = -1;
+        int bestScore = 0;
+        int ties = 0;
+        for (int cell = 0; cell < totals.length; cell++) {
+            int score = totals[cell];
+            if (score == 0 || blocked.get(cell) || wounded.get(cell)) continue;
+            if (score > bestScore) {
+                best = cell;
+                bestScore = score;
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * When no sample was accepted: a cell next to wounded decks or just a random one
+     */
+    private int fallback(BoardView enemy, SplittableRandom random) {
+        int chosen = -1;
+        int seen = 0;
+        for (int i = 0; i < woundedCount; i++) {
+            int x = woundedCells[i] % width;
+            int y = woundedCells[i] / width;
+            for (int direction = 0; direction < 4; direction++) {
+                int nx = x + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+                int ny = y + (direction == 2 ? -1 : direction == 3 ? 1 : 0);
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) continue;
+                if (enemy.isAvailableForShoot(nx, ny) && random.nextInt(++seen) == 0) chosen = Coordinates.pack(nx, ny);
+            }
+        }
+        if (chosen >= 0) return chosen;
+        return enemy.getAvailableCell(random.nextInt(enemy.getAvailableCellsNumber()));
+    }
+
+    @Override
+    public void shotResult(int coordinates, int result) {
+        int cell = Coordinates.y(coordinates) * width + Coordinates.x(coordinates);
+        switch (result) {
+            case 1:
+                wound(cell);
+                break;
+            case 2:
+                wound(cell);
+                kill(cell);
+                break;
+            default:
+                // missed or already shooted: there is no alive ship here
+                if (!wounded.get(cell)) blocked.set(cell);
+        }
+    }
+
+    /**
+     * Ships can't touch each other, so diagonal cells can't have ships
+     */
+    private void wound(int cell) {
+        wounded.set(cell);
+        if (woundedCount < woundedCells.length) woundedCells[woundedCount++] = cell;
+        int x = cell % width;
+        int y = cell / width;
+        for (int dy = -1; dy <= 1; dy += 2) {
+            for (int dx = -1; dx <= 1; dx += 2) {
+                if (x + dx >= 0 && x + dx < width && y + dy >= 0 && y + dy < height) blocked.set(cell + dy * width + dx);
+            }
+        }
+    }
+
+    /**
+     * Wounded decks in line with the last shooted one are the killed ship. They and cells around them are blocked.
+     */
+    private void kill(int cell) {
+        int y = cell / width;
+        boolean byY = (y > 0 && wounded.get(cell - width)) || (y + 1 < height && wounded.get(cell + width));
+        int step = byY ? width : 1;
+        int first = cell;
+        while (byY ? first >= width && wounded.get(first - step) : first % width > 0 && wounded.get(first - step)) {
+            first -= step;
+        }
+        int length = 0;
+        for (int deck = first; deck < width * height && wounded.get(deck); deck += step) {
+            wounded.clear(deck);
+            blockAround(deck);
+            length++;
+            if (!byY && (deck + 1) % width == 0) break;
+        }
+        removeKilledDecks();
+        if (length < remaining.length && remaining[length] > 0) {
+            remaining[length]--;
+            updateFleet();
+        }
+    }
+
+    private void blockAround(int cell) {
+        int x = cell % width;
+        int y = cell / width;
+        for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                blocked.set(ny * width + nx);
+            }
+        }
+    }
+
+    private void removeKilledDecks() {
+        int count = 0;
+        for (int i = 0; i < woundedCount; i++) {
+            if (wounded.get(woundedCells[i])) woundedCells[count++] = woundedCells[i];
+        }
+        woundedCount = count;
+    }
+
+    /**
+     * One worker: makes samples with its own bit sets and counters
+     */
+    private final class Sampler extends RecursiveAction {
+        // never serialized, the strategy itself isn't
+        private static final long serialVersionUID = 1L;
+
+        private final BitBoard ships;
+
+        /**
+         * Ships of the sample with cells around them
+         */
+        private final BitBoard occupied;
+        private final int[] counts;
+        private final int[] placed;
+        private final SplittableRandom random;
+
+        int quota;
+        long deadline;
+        int accepted;
+
+        Sampler(int size, SplittableRandom random) {
+            ships = new BitBoard(size);
+            occupied = new BitBoard(size);
+            counts = new int[size];
+            placed = new int[fleet.length];
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            accepted = 0;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < quota; i++) {
+                if (budgetNanos > 0 && (i & CLOCK_MASK) == CLOCK_MASK && System.nanoTime() > deadline) break;
+                if (sample()) accepted++;
+            }
+        }
+
+        /**
+         * Places every alive ship and counts its cells. Returns "false" if the sample was thrown away.
+         */
+        private boolean sample() {
+            ships.clear();
+            occupied.clear();
+            int covering = -1;
+            if (woundedCount > 0) {
+                covering = placeThroughWounded();
+                if (covering < 0) return false;
+            }
+            int count = covering >= 0 ? 1 : 0;
+            for (int i = 0; i < fleetSize; i++) {
+                if (i == covering) continue;
+                int placement = placeRandomly(fleet[i]);
+                if (placement < 0) return false;
+                placed[count++] = placement;
+            }
+            for (int i = 0; i < woundedCount; i++) {
+                if (!ships.get(woundedCells[i])) return false;
+            }
+            for (int i = 0; i < count; i++) {
+                int placement = placed[i];
+                int step = Coordinates.placementByX(placement) ? 1 : width;
+                int cell = Coordinates.placementY(placement) * width + Coordinates.placementX(placement);
+                for (int deck = 0; deck < Coordinates.placementDecks(placement); deck++, cell += step) {
+                    counts[cell]++;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Places some multi-deck ship through the first wounded deck. Returns its index in the fleet or -1.
+         */
+        private int placeThroughWounded() {
+            int target = woundedCells[0];
+            int tx = target % width;
+            int ty = target / width;
+            for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+                int index = random.nextInt(fleetSize);
+                int length = fleet[index];
+                if (length == 1) continue;   // single-deck ship would be killed already
+                boolean byX = random.nextBoolean();
+                int offset = random.nextInt(length);
+                int x = byX ? tx - offset : tx;
+                int y = byX ? ty : ty - offset;
+                if (tryPlace(x, y, length, byX)) {
+                    placed[0] = Coordinates.packPlacement(x, y, length, byX);
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Places the ship at random legal placement and returns it, or -1 if there was no luck
+         */
+        private int placeRandomly(int length) {
+            PlacementTable table = tables[length];
+            if (table.size() == 0) return -1;
+            for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+                int placement = table.getPlacement(random.nextInt(table.size()));
+                if (tryPlace(Coordinates.placementX(placement), Coordinates.placementY(placement), length,
+                        Coordinates.placementByX(placement))) {
+                    return placement;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Places the ship if it is inside the field, not at blocked cells and doesn't touch ships of the sample
+         */
+        private boolean tryPlace(int x, int y, int length, boolean byX) {
+            int endX = byX ? x + length - 1 : x;
+            int endY = byX ? y : y + length - 1;
+            if (x < 0 || y < 0 || endX >= width || endY >= height) return false;
+            int step = byX ? 1 : width;
+            int first = y * width + x;
+            for (int deck = 0, cell = first; deck < length; deck++, cell += step) {
+                if (blocked.get(cell) || occupied.get(cell)) return false;
+            }
+            for (int deck = 0, cell = first; deck < length; deck++, cell += step) {
+                ships.set(cell);
+            }
+            int fromX = Math.max(0, x - 1);
+            int toX = Math.min(width, endX + 2);
+            for (int row = Math.max(0, y - 1); row <= Math.min(height - 1, endY + 1); row++) {
+                occupied.setRange(row * width + fromX, row * width + toX);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Shoots only at "black" cells of the chessboard until some ship is wounded:
+ * every ship except single-deck ones covers at least one of them.
+ * When the ship is wounded it finishes it by shooting at cells next to wounded decks.
+ */
+class ParityShotStrategy implements ShotStrategy {
+    private final RandomShotStrategy fallback = new RandomShotStrategy();
+
+    /**
+     * Wounded decks of the ship that is not killed yet. Ships can't touch each other,
+     * so all of them belong to the same ship.
+     */
+    private final int[] wounded = new int[GameConfig.MAX_DECKS];
+    private int woundedCount = 0;
+
+    @Override
+    public int nextShot(BoardView enemy, SplittableRandom random) {
+        if (woundedCount > 0) {
+            int next = nextToWounded(enemy, random);
+            if (next >= 0) return next;
+        }
+        int chosen = -1;
+        int seen = 0;
+        for (int y = 0; y < enemy.getHeight(); y++) {
+            for (int x = (y & 1); x < enemy.getWidth(); x += 2) {
+                if (enemy.isAvailableForShoot(x, y) && random.nextInt(++seen) == 0) chosen = Coordinates.pack(x, y);
+            }
+        }
+        return chosen >= 0 ? chosen : fallback.nextShot(enemy, random);
+    }
+
+    /**
+     * Randomly chooses one of available cells next to wounded decks.
+     * If there are 2 or more wounded decks then only cells at the same line are used.
+     */
+    private int nextToWounded(BoardView enemy, SplittableRandom random) {
+        boolean byX = woundedCount > 1 && Coordinates.y(wounded[0]) == Coordinates.y(wounded[1]);
+        boolean byY = woundedCount > 1 && Coordinates.x(wounded[0]) == Coordinates.x(wounded[1]);
+        int chosen = -1;
+        int seen = 0;
+        for (int i = 0; i < woundedCount; i++) {
+            int x = Coordinates.x(wounded[i]);
+            int y = Coordinates.y(wounded[i]);
+            for (int direction = 0; direction < 4; direction++) {
+                int nx = x + (direction == 0 ? -1 : direction == 1 ? 1 : 0);
+                int ny = y + (direction == 2 ? -1 : direction == 3 ? 1 : 0);
+                if ((byX && ny != y) || (byY && nx != x)) continue;
+                if (nx < 0 || ny < 0 || nx >= enemy.getWidth() || ny >= enemy.getHeight()) continue;
+                if (enemy.isAvailableForShoot(nx, ny) && random.nextInt(++seen) == 0) chosen = Coordinates.pack(nx, ny);
+            }
+        }
+        return chosen;
+    }
+
+    @Override
+    public void shotResult(int coordinates, int result) {
+        if (result == 1 && woundedCount < wounded.length) wounded[woundedCount++] = coordinates;
+        else if (result == 2) woundedCount = 0;
+    }
+}
@@ -0,0 +1,16 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Describes how computer places its ships.
+ * Randomness is taken only from the generator of the player, so the same seed gives the same fleet.
+ */
+interface PlacementStrategy {
+    /**
+     * Returns packed (see {@link Coordinates#packPlacement(int, int, int, boolean)}) placement
+     * for the ship with some number of decks at the own field.
+     * Field could refuse the placement, then the strategy will be asked again.
+     */
+    int nextPlacement(BoardView field, int numberOfDecks, SplittableRandom random);
+}
@@ -0,0 +1,71 @@
+package battleship;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every possible placement of the ship with some number of decks at the field of some size.
+ * Strategies are walking through it instead of checking every cell and direction themselves.
+ *
+ * Tables are built on the first request and then shared by all fields and threads, so they must not be changed.
+ */
+final class PlacementTable {
+    private static final ConcurrentHashMap<Long, PlacementTable> TABLES = new ConcurrentHashMap<>();
+
+    private final int numberOfDecks;
+
+    /**
+     * Packed placements (see {@link Coordinates#packPlacement(int, int, int, boolean)}) that are fitting the field
+     */
+    private final int[] placements;
+
+    private PlacementTable(int width, int height, int numberOfDecks) {
+        this.numberOfDecks = numberOfDecks;
+        int byX = numberOfDecks <= width ? (width - numberOfDecks + 1) * height : 0;
+        int byY = numberOfDecks > 1 && numberOfDecks <= height ? width * (height - numberOfDecks + 1) : 0;
+        placements = new int[byX + byY];
+        int count = 0;
+        for (int direction = 0; direction < (numberOfDecks == 1 ? 1 : 2); direction++) {
+            boolean xDirection = direction == 0;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int endX = xDirection ? x + numberOfDecks - 1 : x;
+                    int endY = xDirection ? y : y + numberOfDecks - 1;
+                    if (endX >= width || endY >= height) continue;
+                    placements[count++] = Coordinates.packPlacement(x, y, numberOfDecks, xDirection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the table for ships with some number of decks at the field from the config,
+     * building it if nobody asked for it before.
+     */
+    static PlacementTable forDecks(GameConfig config, int numberOfDecks) {
+        if (numberOfDecks < 1 || numberOfDecks > GameConfig.MAX_DECKS) {
+            throw new IllegalArgumentException("Wrong number of decks: " + numberOfDecks);
+        }
+        int width = config.getWidth();
+        int height = config.getHeight();
+        long key = (long) width << 32 | (long) height << 8 | numberOfDecks;
+        return TABLES.computeIfAbsent(key, k -> new PlacementTable(width, height, numberOfDecks));
+    }
+
+    int getNumberOfDecks() {
+        return numberOfDecks;
+    }
+
+    /**
+     * The number of placements fitting the field
+     */
+    int size() {
+        return placements.length;
+    }
+
+    /**
+     * Returns packed placement by its number from 0 to {@link #size()}
+     */
+    int getPlacement(int number) {
+        return placements[number];
+    }
+}
@@ -1,32 +1,61 @@
 package battleship;
 
 import java.io.Closeable;
+import java.util.Arrays;
 
 /**
- * Abstract class that describes some player's logic.
- * UserInterface and MachineLogic inherits this class.
+ * Abstract class that describes some player's logic: the field with ships and statistics of shoots.
+ * Players who place ships and shoot by themselves are {@link LocalPlayer}s, remote ones are {@link RemotePlayer}s.
  */
 abstract class Player {
     private String name;
     private int theLongestStreak = 0;
     private int theNumberOfMovesPlayerDid = 0;
 
+    /**
+     * Own shoots of this game: all of them (except repeated ones), hits (kills too) and kills
+     */
+    private int shots = 0;
+    private int hits = 0;
+    private int kills = 0;
+    private int shotsSinceKill = 0;
+
+    /**
+     * Shoots made for every killed ship since the previous kill
+     */
+    private int[] shotsToSink = new int[0];
+
     protected static final Logger log = Logger.getInstance();
-    protected final Field field = new Field();
+    protected final Field field;
 
     abstract void placeShips();
-    abstract void placeShipByDeckNumber(int numberOfDecks);
     abstract int beingAttacked(int x, int y);
-    abstract void makeShoot(Player enemy);
 
     protected Player() {
-        super();
+        this(GameConfig.CLASSIC);
     }
 
     protected Player(String name) {
+        this(name, GameConfig.CLASSIC);
+    }
+
+    protected Player(GameConfig config) {
+        super();
+        field = new Field(config);
+    }
+
+    protected Player(String name, GameConfig config) {
+        this(config);
         this.name = name;
     }
 
+    /**
+     * Size of the field and ships every player should place
+     */
+    protected final GameConfig getConfig() {
+        return field.getConfig();
+    }
+
     protected final String getName() {
         return name;
     }
@@ -45,6 +74,13 @@ abstract class Player {
         return result;
     }
 
+    /**
+     * Returns read-only view of the field without ships, as enemies see it.
+     */
+    protected final BoardView getObserverView() {
+        return field.getObserverView();
+    }
+
     protected final int[][] getEmptyCells() {
         return field.getEmptyCells();
     }
@@ -62,7 +98,7 @@ abstract class Player {
     }
 
     protected void setTheLongestStreak(int value) throws NumberFormatException {
-        int fieldSize = 10*10;  // TODO Get property from Field class
+        int fieldSize = getConfig().getCellsNumber();
         if (value > 0 && value < fieldSize) theLongestStreak = value;
         else {
             NumberFormatException e = new NumberFormatException("Value \'" + value + "\' is out of range (<1 or >" + fieldSize + ").");
@@ -75,6 +111,50 @@ abstract class Player {
         theNumberOfMovesPlayerDid++;
     }
 
+    /**
+     * Counts the own shoot with the result of {@link Field#checkDeckAtField(int, int)}.
+     * Called by the one who shoots: the player itself or the {@link GameEngine}.
+     */
+    protected final void shotMade(int result) {
+        if (result < 0) return;
+        shots++;
+        shotsSinceKill++;
+        if (result == 0) return;
+        hits++;
+        if (result == 2) {
+            if (kills == shotsToSink.length) shotsToSink = Arrays.copyOf(shotsToSink, Math.max(4, kills * 2));
+            shotsToSink[kills++] = shotsSinceKill;
+            shotsSinceKill = 0;
+        }
+    }
+
+    protected final int getShotsNumber() {
+        return shots;
+    }
+
+    protected final int getHitsNumber() {
+        return hits;
+    }
+
+    protected final int getKillsNumber() {
+        return kills;
+    }
+
+    /**
+     * Shoots made to sink the ship killed by this player, they are counted since the previous kill
+     */
+    protected final int getShotsToSink(int kill) {
+        if (kill < 0 || kill >= kills) throw new IndexOutOfBoundsException("There is no kill " + kill);
+        return shotsToSink[kill];
+    }
+
+    /**
+     * Part of shoots that hit something, 0 if there were no shoots
+     */
+    protected final double getHitRatio() {
+        return shots == 0 ? 0 : (double) hits / shots;
+    }
+
     protected final boolean putShipsAtField(int startX, int startY, int numberOfDecks, int endX, int endY) throws ShipPlacementException {
         return field.putShip(startX, startY, numberOfDecks, endX, endY);
     }
@@ -83,10 +163,37 @@ abstract class Player {
         return field.putShip(startX, startY);
     }
 
+    /**
+     * Places the same ships as at the other field (usually the one from {@link FleetPool}) instead of placing them one by one
+     */
+    protected final void placeFleet(Field fleet) {
+        if (!fleet.getConfig().equals(getConfig())) {
+            throw new IllegalArgumentException("Fleet for " + fleet.getConfig() + " doesn't fit the field " + getConfig());
+        }
+        resetField();
+        for (int slot = 0; slot < fleet.getPlacedShipsNumber(); slot++) {
+            int placement = fleet.getShipPlacement(slot);
+            int x = Coordinates.placementX(placement);
+            int y = Coordinates.placementY(placement);
+            int decks = Coordinates.placementDecks(placement);
+            try {
+                if (decks == 1) putShipsAtField(x, y);
+                else putShipsAtField(x, y, decks, Coordinates.placementEndX(placement), Coordinates.placementEndY(placement));
+            } catch (ShipPlacementException e) {
+                throw new IllegalStateException("Ship from the other field can't be placed: " + e.getMessage(), e);
+            }
+        }
+        clearField();
+    }
+
     protected final void clearField() {
         field.clear();
     }
 
+    protected final void resetField() {
+        field.reset();
+    }
+
     protected final int checkDeckAtField(int x, int y) {
         return field.checkDeckAtField(x, y);
     }
@@ -96,7 +203,7 @@ abstract class Player {
     }
 
     protected void won() {
-        log.write("User won. Moves = " + theNumberOfMovesPlayerDid + ", the longest streak = " + theLongestStreak);
+        log.write(Logger.Level.INFO, "User won. Moves = {}, the longest streak = {}", theNumberOfMovesPlayerDid, theLongestStreak);
     }
 
     protected static void closeStream(Closeable object) {
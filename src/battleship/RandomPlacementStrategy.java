@@ -0,0 +1,18 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Places ships at random cells in random direction. Doesn't look at other ships at all,
+ * so the field could refuse the placement and it will be chosen again.
+ */
+class RandomPlacementStrategy implements PlacementStrategy {
+    @Override
+    public int nextPlacement(BoardView field, int numberOfDecks, SplittableRandom random) {
+        // long ships could fit only one side of a narrow field
+        boolean xDirection = numberOfDecks <= field.getWidth() && (numberOfDecks > field.getHeight() || random.nextBoolean());
+        int x = random.nextInt(field.getWidth() - (xDirection ? numberOfDecks - 1 : 0));
+        int y = random.nextInt(field.getHeight() - (xDirection ? 0 : numberOfDecks - 1));
+        return Coordinates.packPlacement(x, y, numberOfDecks, xDirection);
+    }
+}
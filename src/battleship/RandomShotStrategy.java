@@ -0,0 +1,19 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * The simplest strategy: shoots at random cell nobody shoot at yet.
+ */
+class RandomShotStrategy implements ShotStrategy {
+    @Override
+    public int nextShot(BoardView enemy, SplittableRandom random) {
+        int available = enemy.getAvailableCellsNumber();
+        if (available == 0) throw new IllegalStateException("There are no cells to shoot at");
+        return enemy.getAvailableCell(random.nextInt(available));
+    }
+
+    @Override
+    public void shotResult(int coordinates, int result) {
+    }
+}
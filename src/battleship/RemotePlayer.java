@@ -0,0 +1,103 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Player at the other end of a network connection, see {@link GameServer}.
+ * It doesn't read anything itself: ships are placed and shoots are made by commands that the session gets
+ * from the connection, so the player is just a field with the list of ships that are still not placed.
+ */
+class RemotePlayer extends Player {
+    private final PlacementStrategy autoPlacement = new LegalPlacementStrategy();
+
+    /**
+     * How many ships of every length should be placed yet
+     */
+    private final int[] shipsToPlace;
+    private int shipsLeft;
+
+    RemotePlayer(String name, GameConfig config) {
+        super(name, config);
+        shipsToPlace = new int[config.getMaxDecks() + 1];
+        resetShips();
+    }
+
+    private void resetShips() {
+        resetField();
+        shipsLeft = 0;
+        for (int decks = 1; decks < shipsToPlace.length; decks++) {
+            shipsToPlace[decks] = getConfig().getShipsNumber(decks);
+            shipsLeft += shipsToPlace[decks];
+        }
+    }
+
+    /**
+     * Ships are placed by commands, see {@link #placeShip(int, int, int, int)}
+     */
+    @Override
+    void placeShips() {
+    }
+
+    @Override
+    int beingAttacked(int x, int y) {
+        return checkDeckAtField(x, y);
+    }
+
+    /**
+     * Places the ship from the first deck to the last one (the same cell for single-deck ships)
+     */
+    void placeShip(int startX, int startY, int endX, int endY) throws ShipPlacementException {
+        int decks = Math.max(Math.abs(endX - startX), Math.abs(endY - startY)) + 1;
+        if (startX != endX && startY != endY) throw new ShipPlacementException("Wrong placement");
+        if (decks >= shipsToPlace.length || shipsToPlace[decks] == 0) {
+            throw new ShipPlacementException("There are no more ships with " + decks + " decks");
+        }
+        if (decks == 1) putShipsAtField(startX, startY);
+        else putShipsAtField(startX, startY, decks, endX, endY);
+        shipsToPlace[decks]--;
+        if (--shipsLeft == 0) clearField();
+    }
+
+    /**
+     * Throws away placed ships and places the whole fleet randomly
+     */
+    void placeRandomly(SplittableRandom random) {
+        boolean placed;
+        do {
+            resetShips();
+            placed = true;
+            for (int decks = shipsToPlace.length - 1; decks > 0 && placed; decks--) {
+                while (shipsToPlace[decks] > 0 && placed) {
+                    int placement = autoPlacement.nextPlacement(field, decks, random);
+                    placed = placement >= 0;
+                    if (placed) {
+                        try {
+                            placeShip(Coordinates.placementX(placement), Coordinates.placementY(placement),
+                                    Coordinates.placementEndX(placement), Coordinates.placementEndY(placement));
+                        } catch (ShipPlacementException e) {
+                            throw new IllegalStateException("Legal placement was refused: " + e.getMessage(), e);
+                        }
+                    }
+                }
+            }
+        } while (!placed);
+    }
+
+    boolean isPlaced() {
+        return shipsLeft == 0;
+    }
+
+    /**
+     * Lengths of ships that should be placed yet, the longest first, like "4 3 3 2"
+     */
+    String getShipsToPlace() {
+        StringBuilder result = new StringBuilder();
+        for (int decks = shipsToPlace.length - 1; decks > 0; decks--) {
+            for (int i = 0; i < shipsToPlace[decks]; i++) {
+                if (result.length() > 0) result.append(' ');
+                result.append(decks);
+            }
+        }
+        return result.toString();
+    }
+}
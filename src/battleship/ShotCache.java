@@ -0,0 +1,238 @@
+package battleship;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded table of shoots chosen by strategies in some positions ("opening book"), see {@link CachedShotStrategy}.
+ * Keys are 64-bit hashes of positions, values are cells to shoot at.
+ *
+ * The table is split into buckets of 4 entries, the bucket is chosen by the lowest bits of the key.
+ * When the bucket is full the entry is evicted by the clock: every entry has a "referenced" flag which is set
+ * when it is found and the hand of the bucket skips (and clears) flagged entries, so positions that are met
+ * in every game are staying while rare ones are replaced.
+ * Buckets are locked by stripes, so the table could be shared by all games of the tournament.
+ *
+ * The table could be saved to a file and loaded back, so the book collected by one run is used by the next one.
+ */
+final class ShotCache {
+    private static final int WAYS = 4;
+    private static final int STRIPES = 64;
+    private static final int MAGIC = 0x42534243;   // "BSBC"
+    private static final int VERSION = 1;
+    private static final int DEFAULT_CAPACITY = 1 << 18;
+
+    private static volatile ShotCache shared = null;
+
+    private final long[] keys;
+    private final int[] shots;
+    private final boolean[] referenced;
+    private final byte[] hands;
+    private final int bucketMask;
+    private final Object[] locks = new Object[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates the table for at least the given number of entries (it is rounded up to a power of two)
+     */
+    ShotCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity should be positive: " + capacity);
+        int size = Math.max(WAYS, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        keys = new long[size];
+        shots = new int[size];
+        referenced = new boolean[size];
+        hands = new byte[size / WAYS];
+        bucketMask = size / WAYS - 1;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * The table shared by all cached strategies. Its size is taken from "battleship.book.size" property
+     * and it is loaded from the file in "battleship.book" property if there is such file.
+     */
+    static ShotCache shared() {
+        ShotCache cache = shared;
+        if (cache == null) {
+            synchronized (ShotCache.class) {
+                cache = shared;
+                if (cache == null) {
+                    cache = new ShotCache(Integer.getInteger("battleship.book.size", DEFAULT_CAPACITY));
+                    String file = System.getProperty("battleship.book");
+                    if (file != null && Files.exists(Paths.get(file))) {
+                        try {
+                            cache.load(Paths.get(file));
+                        } catch (IOException e) {
+                            Logger.getInstance().write(Logger.Level.WARN, "Opening book " + file + " is not loaded", e);
+                        }
+                    }
+                    ShotCache book = cache;
+                    Metrics.getInstance().gauge("book.hit_ratio", () -> {
+                        long hits = book.getHits();
+                        long all = hits + book.getMisses();
+                        return all == 0 ? 0 : (double) hits / all;
+                    });
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Saves the shared table to the file in "battleship.book" property, if the table was used and the property is set
+     */
+    static void saveShared() throws IOException {
+        ShotCache cache = shared;
+        String file = System.getProperty("battleship.book");
+        if (cache != null && file != null) cache.save(Paths.get(file));
+    }
+
+    int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Returns the cell saved for the position or -1
+     */
+    int get(long key) {
+        key = nonZero(key);
+        int bucket = (int) key & bucketMask;
+        synchronized (locks[bucket & (STRIPES - 1)]) {
+            for (int i = bucket * WAYS; i < bucket * WAYS + WAYS; i++) {
+                if (keys[i] == key) {
+                    referenced[i] = true;
+                    hits.increment();
+                    return shots[i];
+                }
+            }
+        }
+        misses.increment();
+        return -1;
+    }
+
+    /**
+     * Saves the cell for the position, evicting some not recently used position if the bucket is full
+     */
+    void put(long key, int shot) {
+        key = nonZero(key);
+        int bucket = (int) key & bucketMask;
+        int first = bucket * WAYS;
+        synchronized (locks[bucket & (STRIPES - 1)]) {
+            int free = -1;
+            for (int i = first; i < first + WAYS; i++) {
+                if (keys[i] == key) {
+                    shots[i] = shot;
+                    return;
+                }
+                if (keys[i] == 0 && free < 0) free = i;
+            }
+            if (free < 0) free = evict(bucket);
+            keys[free] = key;
+            shots[free] = shot;
+            referenced[free] = false;
+        }
+    }
+
+    /**
+     * Moves the hand of the bucket to the first entry that wasn't referenced since the last pass
+     */
+    private int evict(int bucket) {
+        int first = bucket * WAYS;
+        int hand = hands[bucket];
+        while (referenced[first + hand]) {
+            referenced[first + hand] = false;
+            hand = (hand + 1) % WAYS;
+        }
+        hands[bucket] = (byte) ((hand + 1) % WAYS);
+        return first + hand;
+    }
+
+    /**
+     * Zero means an empty entry
+     */
+    private static long nonZero(long key) {
+        return key == 0 ? 1 : key;
+    }
+
+    /**
+     * The number of saved positions
+     */
+    int size() {
+        int size = 0;
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (locks[stripe]) {
+                for (int bucket = stripe; bucket <= bucketMask; bucket += STRIPES) {
+                    for (int i = bucket * WAYS; i < bucket * WAYS + WAYS; i++) {
+                        if (keys[i] != 0) size++;
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Writes every saved position to the file. The file is replaced only when everything is written.
+     */
+    void save(Path file) throws IOException {
+        Path temp = Paths.get(file + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                synchronized (locks[stripe]) {
+                    for (int bucket = stripe; bucket <= bucketMask; bucket += STRIPES) {
+                        for (int i = bucket * WAYS; i < bucket * WAYS + WAYS; i++) {
+                            if (keys[i] == 0) continue;
+                            out.writeLong(keys[i]);
+                            out.writeInt(shots[i]);
+                        }
+                    }
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Adds positions from the file written by {@link #save(Path)}. If the table is smaller than the file
+     * some of them are evicted.
+     */
+    void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not an opening book");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unknown version of the opening book: " + version);
+            while (true) {
+                long key;
+                try {
+                    key = in.readLong();
+                } catch (EOFException e) {
+                    return;
+                }
+                put(key, in.readInt());
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package battleship;
+
+import java.util.SplittableRandom;
+
+/**
+ * Describes how computer chooses cells to shoot at.
+ * Strategy instance remembers everything it needs about one game, so create a new one for every game.
+ * Randomness is taken only from the generator of the player, so the game with the same seed is played the same way.
+ */
+interface ShotStrategy {
+    /**
+     * Returns packed (see {@link Coordinates#pack(int, int)}) coordinates of the enemy's cell to shoot at.
+     * Enemy's ships are hidden in the view.
+     */
+    int nextShot(BoardView enemy, SplittableRandom random);
+
+    /**
+     * Called after every shoot with the result of {@link Field#checkDeckAtField(int, int)}:
+     * -1 - cell was already shooted, 0 - missed, 1 - hit, 2 - killed.
+     */
+    void shotResult(int coordinates, int result);
+
+    /**
+     * Called with the enemy's field before results of shoots chosen by somebody else (see {@link CachedShotStrategy}).
+     * Strategies that are preparing themselves on the first {@link #nextShot} should do it here too.
+     */
+    default void start(BoardView enemy) {
+    }
+
+    /**
+     * Name shown in profiling events
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,48 @@
+package battleship;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of shooting strategies by their names, so they could be chosen from the command line.
+ * Strategies are keeping the state of one game, so the registry keeps factories, not instances.
+ * Any strategy could be wrapped by {@link CachedShotStrategy} with the shared cache by "cached:" before its name.
+ */
+final class Strategies {
+    static final String CACHED_PREFIX = "cached:";
+
+    private static final Map<String, Supplier<? extends ShotStrategy>> SHOT_STRATEGIES = new TreeMap<>();
+
+    static {
+        register("random", RandomShotStrategy::new);
+        register("parity", ParityShotStrategy::new);
+        register("density", DensityShotStrategy::new);
+        register("montecarlo", MonteCarloShotStrategy::new);
+    }
+
+    private Strategies() {
+    }
+
+    static synchronized void register(String name, Supplier<? extends ShotStrategy> factory) {
+        SHOT_STRATEGIES.put(name.toLowerCase(), factory);
+    }
+
+    static synchronized Set<String> getNames() {
+        return new TreeMap<>(SHOT_STRATEGIES).keySet();
+    }
+
+    /**
+     * Creates a new instance of the strategy with some name.
+     */
+    static synchronized ShotStrategy createShotStrategy(String name) {
+        if (name.toLowerCase().startsWith(CACHED_PREFIX)) {
+            String wrapped = name.substring(CACHED_PREFIX.length()).toLowerCase();
+            return new CachedShotStrategy(wrapped, createShotStrategy(wrapped), ShotCache.shared());
+        }
+        Supplier<? extends ShotStrategy> factory = SHOT_STRATEGIES.get(name.toLowerCase());
+        if (factory == null) throw new IllegalArgumentException("Unknown strategy: " + name + ", available: " + SHOT_STRATEGIES.keySet());
+        return factory.get();
+    }
+}
@@ -0,0 +1,295 @@
+package battleship;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Headless runner that plays a lot of games computer against computer.
+ * There is no console interaction, no pauses between shoots and only warnings are logged, so games are limited only by CPU.
+ * Players are taking the first turn one by one: the first player starts every even game.
+ *
+ * Usage: {@code java battleship.Tournament [number of games] [number of threads] [first computer] [second computer] [config] [records file]}
+ * where computers are names of shooting strategies from {@link Strategies}, "random" by default,
+ * config is the size of the field with the fleet like "100x100:40,30,20,10" (see {@link GameConfig}), classic by default,
+ * and every game is appended to the records file (see {@link GameRecord}) if it is given.
+ *
+ * Every game gets its own seed made from the seed of the tournament and the number of the game,
+ * so the results don't depend on the number of threads and the whole tournament is played again
+ * with the same "battleship.seed" system property. The seed is printed with results.
+ * Statistics of players and durations of games are added to {@link Metrics}, see {@link MetricsExporter} to get them.
+ */
+class Tournament {
+    private final Supplier<? extends MachineLogic> firstPlayer;
+    private final Supplier<? extends MachineLogic> secondPlayer;
+    private final int games;
+    private final int threads;
+    private long seed = new SplittableRandom().nextLong();
+
+    /**
+     * Where games are recorded, null if they are not
+     */
+    private GameRecordWriter recorder = null;
+
+    /**
+     * Every worker thread reuses its record
+     */
+    private final ThreadLocal<GameRecord> records = ThreadLocal.withInitial(GameRecord::new);
+
+    private final Metrics metrics = Metrics.getInstance();
+    private final Metrics.Histogram gameDuration = metrics.histogram("game.duration_us");
+
+    Tournament(Supplier<? extends MachineLogic> firstPlayer, Supplier<? extends MachineLogic> secondPlayer, int games, int threads) {
+        if (games < 1) throw new IllegalArgumentException("Number of games should be positive: " + games);
+        if (threads < 1) throw new IllegalArgumentException("Number of threads should be positive: " + threads);
+        this.firstPlayer = firstPlayer;
+        this.secondPlayer = secondPlayer;
+        this.games = games;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String first = args.length > 2 ? args[2] : "random";
+        String second = args.length > 3 ? args[3] : "random";
+        GameConfig config = args.length > 4 ? GameConfig.parse(args[4]) : GameConfig.CLASSIC;
+
+        // per-game chatter is logged only if somebody asks for it explicitly
+        if (System.getProperty("battleship.log.level") == null) Logger.setLevel(Logger.Level.WARN);
+        Tournament tournament = new Tournament(
+                () -> headlessComputer(first, "Computer 1", config),
+                () -> headlessComputer(second, "Computer 2", config),
+                games, threads);
+        String seed = System.getProperty("battleship.seed");
+        if (seed != null) tournament.setSeed(Long.parseLong(seed));
+        MetricsExporter exporter = MetricsExporter.fromProperties();
+        try {
+            if (args.length > 5) {
+                try (GameRecordWriter writer = GameRecordWriter.append(Paths.get(args[5]))) {
+                    tournament.setRecorder(writer);
+                    System.out.println(tournament.run());
+                    System.out.printf("Games recorded: %d, %d bytes (%.1f bytes per game)%n", writer.getRecordsWritten(),
+                            writer.getBytesWritten(), (double) writer.getBytesWritten() / writer.getRecordsWritten());
+                }
+            } else {
+                System.out.println(tournament.run());
+            }
+        } finally {
+            try {
+                if (exporter != null) exporter.close();
+            } finally {
+                // the opening book collected by "cached:" strategies is kept for the next run, even if recording failed
+                ShotCache.saveShared();
+            }
+        }
+    }
+
+    void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the seed of the game in the tournament with some seed
+     */
+    static long gameSeed(long tournamentSeed, int game) {
+        // the same as the value number "game" of SplittableRandom(tournamentSeed), but without generating previous ones
+        return new SplittableRandom(tournamentSeed + game * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
+    /**
+     * Every game will be written by the writer. It is not closed by the tournament.
+     */
+    void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Creates computer player with some shooting strategy which is not pausing after its shoots.
+     */
+    static MachineLogic headlessComputer(String strategy, String name) {
+        return headlessComputer(strategy, name, GameConfig.CLASSIC);
+    }
+
+    static MachineLogic headlessComputer(String strategy, String name, GameConfig config) {
+        MachineLogic computer = new MachineLogic(name, config, Strategies.createShotStrategy(strategy), new LegalPlacementStrategy());
+        computer.setPacing(TurnPacing.NONE);
+        return computer;
+    }
+
+    /**
+     * Plays all games using the pool of worker threads and returns collected results.
+     * Workers are taking the next game number from a shared counter, so there is no need to split games in advance.
+     */
+    Result run() throws InterruptedException {
+        Result result = new Result(games, seed);
+        AtomicInteger nextGame = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(() -> {
+                    int game;
+                    while ((game = nextGame.getAndIncrement()) < games) {
+                        play(game, result);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Game failed", e.getCause());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        result.totalNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Plays one game from ships placement to the last killed ship and saves its results by game number.
+     */
+    private void play(int game, Result result) {
+        long start = System.nanoTime();
+        MachineLogic first = firstPlayer.get();
+        MachineLogic second = secondPlayer.get();
+        SplittableRandom random = new SplittableRandom(gameSeed(seed, game));
+        first.setRandom(random.split());
+        second.setRandom(random.split());
+
+        GameRecord record = recorder != null ? records.get() : null;
+        result.firstWon[game] = playGame(first, second, game % 2 == 0, record) == first;
+        if (record != null) {
+            try {
+                recorder.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Can't record the game", e);
+            }
+        }
+        result.moves[game] = first.getTheNumberOfMovesPlayerDid() + second.getTheNumberOfMovesPlayerDid();
+        result.nanos[game] = System.nanoTime() - start;
+        metrics.gameFinished(first.getName(), first, result.firstWon[game]);
+        metrics.gameFinished(second.getName(), second, !result.firstWon[game]);
+        gameDuration.record(result.nanos[game] / 1000);
+    }
+
+    /**
+     * Places ships of both players and lets them shoot one by one until somebody loses all ships.
+     * Returns the winner.
+     */
+    static LocalPlayer playGame(LocalPlayer first, LocalPlayer second, boolean firstStarts) {
+        return playGame(first, second, firstStarts, null);
+    }
+
+    /**
+     * The same, but also saves both fleets and every shoot to the record if it is not null
+     */
+    static LocalPlayer playGame(LocalPlayer first, LocalPlayer second, boolean firstStarts, GameRecord record) {
+        first.placeShips();
+        second.placeShips();
+        if (record != null) {
+            record.start(first.getConfig(), firstStarts);
+            record.setFleets(first.field, second.field);
+            first.field.setShotListener(record);
+            second.field.setShotListener(record);
+        }
+
+        LocalPlayer attacker = firstStarts ? first : second;
+        LocalPlayer defender = attacker == first ? second : first;
+        while (first.isMoreShips() && second.isMoreShips()) {
+            attacker.makeShoot(defender);
+            LocalPlayer swap = attacker;
+            attacker = defender;
+            defender = swap;
+        }
+        if (record != null) {
+            first.field.setShotListener(null);
+            second.field.setShotListener(null);
+        }
+        return first.isMoreShips() ? first : second;
+    }
+
+    /**
+     * Results of all games in the tournament. Every game writes only its own elements of arrays.
+     */
+    static class Result {
+        private final boolean[] firstWon;
+        private final int[] moves;
+        private final long[] nanos;
+        private final long seed;
+        private long totalNanos;
+
+        private Result(int games, long seed) {
+            this.seed = seed;
+            firstWon = new boolean[games];
+            moves = new int[games];
+            nanos = new long[games];
+        }
+
+        int getGames() {
+            return moves.length;
+        }
+
+        long getSeed() {
+            return seed;
+        }
+
+        int getFirstPlayerWins() {
+            int wins = 0;
+            for (boolean won : firstWon) {
+                if (won) wins++;
+            }
+            return wins;
+        }
+
+        double getAverageMoves() {
+            long sum = 0;
+            for (int value : moves) {
+                sum += value;
+            }
+            return (double) sum / moves.length;
+        }
+
+        /**
+         * Returns game duration (in nanoseconds) for some percentile from 0 to 100.
+         */
+        long getLatencyPercentile(double percentile) {
+            long[] sorted = Arrays.copyOf(nanos, nanos.length);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            int games = getGames();
+            int firstWins = getFirstPlayerWins();
+            return String.format("Games played: %d in %.3f s (%.1f games/s), seed %d%n" +
+                            "First player won: %d (%.2f%%), second player won: %d (%.2f%%)%n" +
+                            "Average moves per game: %.2f%n" +
+                            "Game latency, us: p50 = %.1f, p99 = %.1f, max = %.1f",
+                    games, totalNanos / 1e9, games / (totalNanos / 1e9), seed,
+                    firstWins, 100.0 * firstWins / games, games - firstWins, 100.0 * (games - firstWins) / games,
+                    getAverageMoves(),
+                    getLatencyPercentile(50) / 1e3, getLatencyPercentile(99) / 1e3, getLatencyPercentile(100) / 1e3);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package battleship;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how long computer "thinks" after every shoot.
+ * There are 3 kinds of pacing:
+ * <ul>
+ *     <li>{@link #NONE} - no pauses at all, used for headless and batch games;</li>
+ *     <li>{@link #fixed(long)} - the calling thread sleeps after every shoot, used for interactive console game;</li>
+ *     <li>{@link #scheduled(long)} - the pause is never slept in the calling thread.
+ *     The game continues from {@link #delay()} when the shared timer fires.</li>
+ * </ul>
+ * All delays of all games are served by one daemon timer thread, so no thread is parked per game.
+ */
+final class TurnPacing {
+    static final TurnPacing NONE = new TurnPacing(0L, false);
+
+    private static final CompletableFuture<Void> NO_DELAY = CompletableFuture.completedFuture(null);
+
+    private final long delayMillis;
+    private final boolean blocking;
+
+    private TurnPacing(long delayMillis, boolean blocking) {
+        if (delayMillis < 0) throw new IllegalArgumentException("Delay can't be negative: " + delayMillis);
+        this.delayMillis = delayMillis;
+        this.blocking = blocking;
+    }
+
+    /**
+     * Pacing that makes {@link #pause()} sleep for some milliseconds.
+     */
+    static TurnPacing fixed(long millis) {
+        return millis == 0 ? NONE : new TurnPacing(millis, true);
+    }
+
+    /**
+     * Pacing that never blocks: {@link #pause()} returns immediately and only {@link #delay()} waits.
+     */
+    static TurnPacing scheduled(long millis) {
+        return millis == 0 ? NONE : new TurnPacing(millis, false);
+    }
+
+    long getDelayMillis() {
+        return delayMillis;
+    }
+
+    boolean hasDelay() {
+        return delayMillis > 0;
+    }
+
+    /**
+     * Pauses the calling thread, but only for the {@link #fixed(long)} pacing.
+     */
+    void pause() throws InterruptedException {
+        if (blocking && delayMillis > 0) Thread.sleep(delayMillis);
+    }
+
+    /**
+     * Returns future that will be completed by the shared timer thread when the delay ends.
+     * Continuations attached to it should be short or should move themselves to another executor.
+     */
+    CompletableFuture<Void> delay() {
+        if (delayMillis == 0) return NO_DELAY;
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        Timer.INSTANCE.schedule(() -> result.complete(null), delayMillis, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        if (delayMillis == 0) return "no delay";
+        return (blocking ? "fixed " : "scheduled ") + delayMillis + " ms";
+    }
+
+    /**
+     * Lazy holder of the timer so it is not started when nobody needs it.
+     */
+    private static class Timer {
+        private static final ScheduledExecutorService INSTANCE = createTimer();
+
+        private static ScheduledExecutorService createTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "Turn pacing timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
@@ -9,12 +9,17 @@ import java.util.Properties;
 /**
  * This class is responsible for interaction with a user using console.
  */
-class UserInterface extends Player {
+class UserInterface extends LocalPlayer {
     private static final Map<String, String> LANG = new HashMap<>();
     private static final BufferedReader CONSOLE_READER = new BufferedReader(new InputStreamReader(System.in));
 
     private String enemyName;
 
+    /**
+     * Own shoots since the beginning of the current turn
+     */
+    private int turnShots = 0;
+
     UserInterface() {
         super();
         //createDefaultLanguagePack();
@@ -22,22 +27,30 @@ class UserInterface extends Player {
     }
 
     UserInterface(String name, String[] args) {
-        super(name);
+        this(name, args, GameConfig.CLASSIC);
+    }
+
+    UserInterface(String name, String[] args, GameConfig config) {
+        super(name, config);
         createDefaultLanguagePack();
         loadLanguage(args);
     }
 
     UserInterface(String[] args){
-        this("User", args);
+        this(args, GameConfig.CLASSIC);
+    }
+
+    UserInterface(String[] args, GameConfig config){
+        this("User", args, config);
         // TODO hardcoded strings
         String name;
         System.out.println(LANG.get("welcome text"));
         try {
             System.out.print("Enter your name (or leave it blank): ");
-            name = CONSOLE_READER.readLine();
+            name = readLine();
             if (name != null && !name.isEmpty()) setName(name);
             System.out.print("Enter opponent's name (or leave it blank): ");
-            enemyName = CONSOLE_READER.readLine();
+            enemyName = readLine();
             System.out.println("Ok.");
         } catch (Exception e) {
             log.write("Error while reading user/computer name.", e);
@@ -47,8 +60,9 @@ class UserInterface extends Player {
     private static void createDefaultLanguagePack() {
         LANG.put("welcome text", "Welcome in this game!");
         LANG.put("Rules of placing ships", "The ships should be placed in a line horizontally or vertically with at least one cell between ships.\n" +
-                "Single-deck ships occupy one cell. There should be 4 single-deck ships, 3 double-deck ones (2 cells in a line),\n" +
-                "2 triple-deckers (3 cells in a line) and 1 with 4 decks (4 cells in a line).");
+                "Every ship occupies as many cells in a line as it has decks. There should be ");
+        LANG.put("Fleet part1", " ship(s) with ");
+        LANG.put("Fleet part2", " deck(s)");
         LANG.put("Show input format", "Let's use coordinates in format \"B4\".");
         LANG.put("Ask for start point part1", "Please, enter starting coordinate for ship with ");
         LANG.put("Ask for start point part2", " decks: ");
@@ -144,24 +158,36 @@ class UserInterface extends Player {
     }
 
     void placeShips() {
-        System.out.println(LANG.get("Rules of placing ships"));
+        System.out.println(LANG.get("Rules of placing ships") + describeFleet() + ".");
         drawField();
         System.out.println(LANG.get("Show input format"));
-        for (int i = 4; i > 0; i--) {
+        for (int i = getConfig().getMaxDecks(); i > 0; i--) {
             placeShipByDeckNumber(i);
         }
-        synchronized (log) {
-            log.write("All ships are placed by user. Cleaning field...");
-        }
+        log.write("All ships are placed by user. Cleaning field...");
         clearField();
     }
 
+    /**
+     * Ships of the config like "4 ship(s) with 1 deck(s), 3 ship(s) with 2 deck(s)"
+     */
+    private String describeFleet() {
+        StringBuilder fleet = new StringBuilder();
+        for (int decks = 1; decks <= getConfig().getMaxDecks(); decks++) {
+            int ships = getConfig().getShipsNumber(decks);
+            if (ships == 0) continue;
+            if (fleet.length() > 0) fleet.append(", ");
+            fleet.append(ships).append(LANG.get("Fleet part1")).append(decks).append(LANG.get("Fleet part2"));
+        }
+        return fleet.toString();
+    }
+
     void placeShipByDeckNumber(int numberOfDecks) {
         String sNumberOfDecks = String.valueOf(numberOfDecks);
         if (numberOfDecks == 1) sNumberOfDecks = "single-";
         String start = null;
         String end = null;
-        for (int i = numberOfDecks - 1; i < 4; i++) {
+        for (int i = 0; i < getConfig().getShipsNumber(numberOfDecks); i++) {
             boolean flag = true;
             do {
                 if (numberOfDecks != 1)
@@ -169,64 +195,60 @@ class UserInterface extends Player {
                 else System.out.print(LANG.get("Ask for single-deck"));
 
                 try {
-                    start = CONSOLE_READER.readLine();
+                    start = readLine();
                     int[] startXY = getCoordinatesFromString(start);
                     int startX = startXY[0];
                     int startY = startXY[1];
                     if (numberOfDecks != 1) {
                         System.out.print(LANG.get("Ask for end point part1") + sNumberOfDecks + LANG.get("Ask for end point part2"));
-                        end = CONSOLE_READER.readLine();
+                        end = readLine();
                         int[] endXY = getCoordinatesFromString(end);
                         int endX = endXY[0];
                         int endY = endXY[1];
                         flag = !putShipsAtField(startX, startY, numberOfDecks, endX, endY);
                     } else flag = !putShipsAtField(startX, startY);
                 } catch (IOException e) {
-                    synchronized (log) {
-                        log.write("Exception while reading from console.", e);
-                    }
+                    log.write(Logger.Level.ERROR, "Exception while reading from console.", e);
                     // TODO add System.exit()
                 } catch (ShipPlacementException e) {
                     System.out.println("Bad coordinates");
                     // TODO обработать исключения
-                    synchronized (log) {
-                        log.write("Bad coordinates for " + sNumberOfDecks + "decker (" + start + ", " + end + ")", e);
+                    if (Logger.isEnabled(Logger.Level.DEBUG)) {
+                        log.write(Logger.Level.DEBUG, "Bad coordinates for " + sNumberOfDecks + "decker (" + start + ", " + end + ")", e);
                     }
                 } catch (Exception e) {
                     System.out.println(LANG.get("Abstract error"));
-                    synchronized (log) {
-                        log.write("Something bad happened while user was trying to place his ships.", e);
-                    }
+                    log.write(Logger.Level.ERROR, "Something bad happened while user was trying to place his ships.", e);
                 }
             } while (flag);
-            synchronized (log) {
-                log.write("Coordinates for user's " + sNumberOfDecks + "decker: (" +
+            if (Logger.isEnabled(Logger.Level.DEBUG)) {
+                log.write(Logger.Level.DEBUG, "Coordinates for user's " + sNumberOfDecks + "decker: (" +
                         start.toUpperCase() + (numberOfDecks > 1 ? ", " + end.toUpperCase() : "") + ").");
             }
             drawField();
-            if (i != 3) System.out.println(LANG.get("Ask for another ship"));
+            if (i != getConfig().getShipsNumber(numberOfDecks) - 1) System.out.println(LANG.get("Ask for another ship"));
         }
     }
 
     int beingAttacked(int x, int y) {
         // TODO hardcoded strings
         int result = checkDeckAtField(x, y);
-        System.out.print("Computer shoots at: " + (char)('A' + x) + (y + 1) + "... ");
-        log.write("Computer shoots at: " + (char)('A' + x) + (y + 1) + ".");
+        System.out.print("Computer shoots at: " + Coordinates.toString(x, y) + "... ");
+        log.write(Logger.Level.DEBUG, "Computer shoots at: {}{}.", Coordinates.columnName(x), y + 1);
         if (result == 0) {
             System.out.println("But it missed. Your turn.");
-            log.write("Computer misses.");
+            log.write(Logger.Level.DEBUG, "Computer misses.");
             return result;
         }
         if (result > 0) {
             if (result == 1) {
                 System.out.println("Computer hits your ship.");
-                log.write("Computer hits ship.");
+                log.write(Logger.Level.DEBUG, "Computer hits ship.");
                 return result;
             }
             if (result == 2) {
                 System.out.println("Computer killed your ship.");
-                log.write("Computer kills ship.");
+                log.write(Logger.Level.DEBUG, "Computer kills ship.");
                 return result;
             }
         }
@@ -235,131 +257,125 @@ class UserInterface extends Player {
     }
 
     void makeShoot(Player enemy) {
-        // TODO replace hardcoded language strings
-        int x = -1, y = -1;
-        int repeat = 1;
         incrementTheNumberOfMovesPlayerDid();
-        int cycleCounter = 0;
-        do {
-            if (!enemy.isMoreShips()) break;
-            cycleCounter++;
-            if (x >= 0) drawAllFields(enemy);
+        int result = 1;
+        for (boolean first = true; result != 0 && enemy.isMoreShips(); first = false) {
+            if (!first) drawAllFields(enemy);
+            int shot = readShot(enemy);
+            int x = Coordinates.x(shot);
+            int y = Coordinates.y(shot);
+            result = enemy.beingAttacked(x, y);
+            shotMade(result);
+            shotResult(x, y, result);
+        }
+    }
+
+    /**
+     * Asks for coordinates until the user enters a cell of the enemy's field that wasn't shot yet.
+     * Returns packed coordinates, see {@link Coordinates#pack(int, int)}.
+     */
+    int readShot(Player enemy) {
+        // TODO replace hardcoded language strings
+        while (true) {
             System.out.print("Enter coordinates for shoot: ");
             String sCoordinates = "";
             try {
-                sCoordinates = CONSOLE_READER.readLine();
+                sCoordinates = readLine();
                 int[] coordinates = getCoordinatesFromString(sCoordinates);
-                x = coordinates[0];
-                y = coordinates[1];
+                if (isAvailableForShoot(enemy.getCell(coordinates[0], coordinates[1]))) {
+                    return Coordinates.pack(coordinates[0], coordinates[1]);
+                }
+                System.out.println("You already shoot this cell. Try another one.");
             } catch (ShipPlacementException e) {
-                log.write("User input had bad coordinates for shoot: " + sCoordinates, e);
+                log.write(Logger.Level.DEBUG, "User input had bad coordinates for shoot: {} ({})", sCoordinates, e.getMessage());
             } catch (Exception e) {
-                log.write("There was an error while getting user's coordinates for next shoot", e);
+                log.write(Logger.Level.ERROR, "There was an error while getting user's coordinates for next shoot", e);
             }
-            if (x >= 0 && !isAvailableForShoot(enemy.getCell(x, y))) {
-                System.out.println("You already shoot this cell. Try another one.");
-                x = -1;
+        }
+    }
+
+    /**
+     * Tells the user the result of the own shoot and counts the streak of shoots in one turn
+     */
+    void shotResult(int x, int y, int result) {
+        // TODO replace hardcoded language strings
+        log.write(Logger.Level.DEBUG, "User shoots: {}{}.", Coordinates.columnName(x), y + 1);
+        switch (result) {
+            case -1 : {
+                System.out.println("You already shoot this cell1. Try another one.");
+                log.write(Logger.Level.DEBUG, "User already shoot this cell.");
+                break;
             }
-            if (x >= 0) {
-                repeat = enemy.beingAttacked(x, y);
-                log.write("User shoots: " + (char)('A' + x) + (y + 1) + ".");
-                switch (repeat) {
-                    case -1 : {
-                        System.out.println("You already shoot this cell1. Try another one.");
-                        log.write("User already shoot this cell.");
-                        break;
-                    }
-                    case 0 : {
-                        System.out.println("You missed. Computer's turn.");
-                        log.write("User misses.");
-                        break;
-                    }
-                    case 1 : {
-                        System.out.println("You hit computer's ship! Shoot again!");
-                        log.write("User hits a ship.");
-                        break;
-                    }
-                    case 2 : {
-                        System.out.println("Great! You've just killed computer's ship!");
-                        log.write("User kills computer's ship.");
-                        break;
-                    }
-                }
+            case 0 : {
+                System.out.println("You missed. Computer's turn.");
+                log.write(Logger.Level.DEBUG, "User misses.");
+                break;
+            }
+            case 1 : {
+                System.out.println("You hit computer's ship! Shoot again!");
+                log.write(Logger.Level.DEBUG, "User hits a ship.");
+                break;
+            }
+            case 2 : {
+                System.out.println("Great! You've just killed computer's ship!");
+                log.write(Logger.Level.DEBUG, "User kills computer's ship.");
+                break;
             }
-        } while (repeat != 0);
-        if (cycleCounter > getTheLongestStreak()) setTheLongestStreak(cycleCounter);
+        }
+        turnShots++;
+        if (result == 0) endStreak();
+    }
+
+    private void endStreak() {
+        if (turnShots > getTheLongestStreak()) setTheLongestStreak(turnShots);
+        turnShots = 0;
     }
 
     protected void won() {
+        endStreak();
         super.won();
         // TODO replace hardcoded language strings
         System.out.println("You won!");
         System.out.println("You did it in " + getTheNumberOfMovesPlayerDid() + " moves.");
         System.out.println("The longest streak of successful hits you did is " + getTheLongestStreak() + " hits.");
+        printHitRatio();
     }
 
     /**
      * This method will cast coordinates from "B4" view to normal one like "1, 5"
-     * (equals to "B4". horizontal: A->0, B->1, ...; vertical: 1->0, 2->1, ...)
+     * (equals to "B4". horizontal: A->0, B->1, ..., Z->25, AA->26, ...; vertical: 1->0, 2->1, ...)
      * Or will throw an exception if coordinates are extremely wrong.
      */
     private int[] getCoordinatesFromString(String sCoordinates) throws ShipPlacementException {
         if (sCoordinates == null || sCoordinates.isEmpty()) throw new ShipPlacementException("Empty string");
-        int[] result;
-        if (sCoordinates.length() == 2 || sCoordinates.length() == 3) {
-            try {
-                char first = sCoordinates.toUpperCase().charAt(0);
-                int second = Integer.parseInt(sCoordinates.substring(1));
-                if (first >= 'A' && first <= 'J' &&
-                        second > 0 && second < 11) {
-                    result = new int[]{first - 'A', second - 1};
-                } else throw new ShipPlacementException("Coordinates out of range");
-            } catch (NumberFormatException e) {
-                throw new ShipPlacementException("Number format failed");
-            }
-        } else throw new ShipPlacementException("String length is wrong");
-        return result;
+        String upper = sCoordinates.trim().toUpperCase();
+        int letters = 0;
+        while (letters < upper.length() && Character.isLetter(upper.charAt(letters))) {
+            letters++;
+        }
+        if (letters == 0 || letters == upper.length()) throw new ShipPlacementException("String length is wrong");
+        int x = Coordinates.parseColumn(upper.substring(0, letters));
+        int y;
+        try {
+            y = Integer.parseInt(upper.substring(letters)) - 1;
+        } catch (NumberFormatException e) {
+            throw new ShipPlacementException("Number format failed");
+        }
+        if (x < 0 || x >= field.getWidth() || y < 0 || y >= field.getHeight()) {
+            throw new ShipPlacementException("Coordinates out of range");
+        }
+        return new int[]{x, y};
     }
 
     /**
      * Call this if you need to draw full field.
      */
     void drawField() {
-        System.out.println("   --------------------------------");
-        for (int i = 9; i >= 0; i--) {
-            if (i != 9) System.out.print(" ");
-            System.out.print((i + 1) + " |");
-            for (int j = 0; j < 10; j++) {
-                System.out.print(" " + getCell(j, i) + " ");
-            }
-            System.out.print("|");
-            System.out.println();
-        }
-        System.out.println("   --------------------------------");
-        System.out.println("     A  B  C  D  E  F  G  H  I  J");
+        ConsoleRenderer.console().drawField(this);
     }
 
     void drawAllFields(Player enemy) {
-        System.out.println(LANG.get("Fields names1") + enemy.getName() + LANG.get("Fields names2"));
-        System.out.println("   --------------------------------    --------------------------------");
-        for (int i = 9; i >= 0; i--) {
-            String number;
-            if (i == 9) number = String.valueOf(i + 1);
-            else number = " " + String.valueOf(i + 1);
-            StringBuilder sb = new StringBuilder();
-            sb.append(number).append(" |");
-            for (int j = 0; j < 10; j++) {
-                sb.append(" ").append(getCell(j, i)).append(" ");
-            }
-            sb.append("| ").append(number).append(" |");
-            for (int j = 0; j < 10; j++) {
-                sb.append(" ").append(enemy.getCellSafe(j, i)).append(" ");
-            }
-            sb.append("|");
-            System.out.println(sb);
-        }
-        System.out.println("   --------------------------------    --------------------------------");
-        System.out.println("     A  B  C  D  E  F  G  H  I  J        A  B  C  D  E  F  G  H  I  J");
+        ConsoleRenderer.console().drawFields(this, enemy, LANG.get("Fields names1") + enemy.getName() + LANG.get("Fields names2"));
     }
 
     void askToWait() {
@@ -373,13 +389,31 @@ class UserInterface extends Player {
     public void loose() {
         // TODO replace hardcoded language strings
         System.out.println(getName() + " loose.");
-        log.write("User \'" + getName() + "\' loose. User moves = " + getTheNumberOfMovesPlayerDid() + ", the longest streak = " + getTheLongestStreak());
+        log.write(Logger.Level.INFO, "User '{}' loose. User moves = {}, the longest streak = {}",
+                getName(), getTheNumberOfMovesPlayerDid(), getTheLongestStreak());
         System.out.println("You did only " + getTheNumberOfMovesPlayerDid() + " moves.");
         System.out.println("The longest streak of successful hits you did is " + getTheLongestStreak() + " hits.");
+        printHitRatio();
+
+    }
+
+    /**
+     * Reads the line typed by the user, the time of waiting for it is seen in profiling events
+     */
+    private static String readLine() throws IOException {
+        GameEvents.Console event = new GameEvents.Console();
+        event.start();
+        String line = CONSOLE_READER.readLine();
+        event.finish(GameEvents.Console.READ, line != null ? line.length() : -1);
+        return line;
+    }
 
+    private void printHitRatio() {
+        System.out.printf("%d of your %d shoots hit ships (%.0f%%).%n", getHitsNumber(), getShotsNumber(), getHitRatio() * 100);
     }
 
     static void end() {
+        ConsoleRenderer.console().reset();
         closeStream(CONSOLE_READER);
     }
 }
@@ -0,0 +1,30 @@
+package battleship;
+
+/**
+ * Keys for Zobrist hashing of fields: every state of every cell has its random 64-bit key
+ * and the hash of the field is XOR of keys of its not empty cells, so a changed cell costs one XOR.
+ *
+ * Keys are made by SplitMix64 from the cell and the state instead of being stored in a table,
+ * so they are the same for fields of any size and in every run, and hashes could be saved to files.
+ * States are {@link BoardView#MISSED}, {@link BoardView#HIT} and {@link BoardView#SHIP}.
+ */
+final class Zobrist {
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of the state of the cell (y * width + x)
+     */
+    static long key(int state, int cell) {
+        return mix((long) cell << 2 | state);
+    }
+
+    /**
+     * Finalizer of SplitMix64: spreads bits of the number, so XOR of mixed numbers is a good hash of their set
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,117 @@
+package battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Positions that are rotations or reflections of each other share the cache entry
+ */
+class CachedShotStrategyTest {
+    private static final int SIZE = GameConfig.CLASSIC.getWidth();
+
+    /**
+     * Strategy that shoots at given cells one by one
+     */
+    private static final class Planned implements ShotStrategy {
+        private final int[] shots;
+        private int next = 0;
+
+        Planned(int... shots) {
+            this.shots = shots;
+        }
+
+        @Override
+        public int nextShot(BoardView enemy, SplittableRandom random) {
+            return shots[next++];
+        }
+
+        @Override
+        public void shotResult(int coordinates, int result) {
+        }
+    }
+
+    /**
+     * Strategy that should never be asked, because everything is in the cache
+     */
+    private static final class Unused implements ShotStrategy {
+        @Override
+        public int nextShot(BoardView enemy, SplittableRandom random) {
+            return fail("position should be found in the cache");
+        }
+
+        @Override
+        public void shotResult(int coordinates, int result) {
+        }
+    }
+
+    /**
+     * Packed coordinates of the cell after the symmetry
+     */
+    private static int transformed(int symmetry, int x, int y) {
+        int cell = CachedShotStrategy.transform(symmetry, x, y, SIZE, SIZE);
+        return Coordinates.pack(cell % SIZE, cell / SIZE);
+    }
+
+    /**
+     * Field with one single-deck ship and a few misses, moved by the symmetry
+     */
+    private static Field position(int symmetry) throws ShipPlacementException {
+        Field field = new Field(GameConfig.CLASSIC);
+        int ship = transformed(symmetry, 2, 3);
+        field.putShip(Coordinates.x(ship), Coordinates.y(ship));
+        field.clear();
+        int[][] misses = {{0, 0}, {1, 5}, {9, 2}, {6, 8}};
+        for (int[] miss : misses) {
+            int cell = transformed(symmetry, miss[0], miss[1]);
+            field.checkDeckAtField(Coordinates.x(cell), Coordinates.y(cell));
+        }
+        return field;
+    }
+
+    private static int shoot(ShotStrategy strategy, Field field) {
+        int shot = strategy.nextShot(field.getObserverView(), new SplittableRandom(1));
+        int result = field.checkDeckAtField(Coordinates.x(shot), Coordinates.y(shot));
+        strategy.shotResult(shot, result);
+        return shot;
+    }
+
+    @Test
+    void findsTransformedPositionsInCache() throws ShipPlacementException {
+        ShotCache cache = new ShotCache(1024);
+        // the first shoot kills the ship, so the second position has dots around it
+        ShotStrategy first = new CachedShotStrategy("planned", new Planned(Coordinates.pack(2, 3), Coordinates.pack(7, 7)), cache);
+        Field field = position(0);
+        assertEquals(Coordinates.pack(2, 3), shoot(first, field));
+        assertEquals(Coordinates.pack(7, 7), shoot(first, field));
+        assertEquals(2, cache.size());
+
+        for (int symmetry = 1; symmetry < 8; symmetry++) {
+            ShotStrategy cached = new CachedShotStrategy("planned", new Unused(), cache);
+            Field transformed = position(symmetry);
+            assertEquals(transformed(symmetry, 2, 3), shoot(cached, transformed), "symmetry " + symmetry);
+            assertEquals(transformed(symmetry, 7, 7), shoot(cached, transformed), "symmetry " + symmetry);
+        }
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void countsShootsMadeWithoutTheStrategy() throws ShipPlacementException {
+        ShotCache cache = new ShotCache(1024);
+        ShotStrategy first = new CachedShotStrategy("planned", new Planned(Coordinates.pack(4, 4), Coordinates.pack(5, 5)), cache);
+        Field field = position(0);
+        shoot(first, field);
+        field.checkDeckAtField(2, 3);
+        shoot(first, field);
+
+        ShotStrategy cached = new CachedShotStrategy("planned", new Unused(), cache);
+        Field reflected = position(1);
+        int kill = transformed(1, 2, 3);
+        reflected.checkDeckAtField(Coordinates.x(kill), Coordinates.y(kill));
+        reflected.checkDeckAtField(Coordinates.x(transformed(1, 4, 4)), Coordinates.y(transformed(1, 4, 4)));
+        assertEquals(transformed(1, 5, 5), shoot(cached, reflected));
+    }
+}
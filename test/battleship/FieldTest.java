@@ -0,0 +1,135 @@
+package battleship;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Placement and shoot rules of the field, the same as they were with the char grid
+ */
+class FieldTest {
+    private Field field;
+
+    @BeforeEach
+    void setUp() {
+        field = new Field(GameConfig.CLASSIC);
+    }
+
+    @Test
+    void placesShipsByBothEnds() throws ShipPlacementException {
+        assertTrue(field.putShip(0, 0, 4, 0, 3));
+        assertTrue(field.putShip(9, 9, 3, 7, 9));
+        assertTrue(field.putShip(5, 5));
+        for (int y = 0; y < 4; y++) {
+            assertEquals(Field.getFilledCell(), field.getCell(0, y));
+        }
+        for (int x = 7; x < 10; x++) {
+            assertEquals(Field.getFilledCell(), field.getCell(x, 9));
+        }
+        assertEquals(Field.getFilledCell(), field.getCell(5, 5));
+        assertEquals(3, field.getShipsNumber());
+    }
+
+    @Test
+    void refusesWrongPlacements() throws ShipPlacementException {
+        field.putShip(0, 0, 4, 0, 3);
+        assertReason("Coordinates out of range", () -> field.putShip(8, 0, 3, 10, 0));
+        assertReason("Coordinates out of range", () -> field.putShip(10, 0));
+        assertReason("Wrong size", () -> field.putShip(5, 0, 3, 8, 0));
+        assertReason("Wrong placement", () -> field.putShip(5, 5, 2, 6, 6));
+        assertReason("Cell isn't empty", () -> field.putShip(0, 2));
+        assertReason("Too close to other ships", () -> field.putShip(1, 4));
+        assertReason("Too close to other ships", () -> field.putShip(1, 0, 2, 2, 0));
+        assertEquals(1, field.getShipsNumber());
+    }
+
+    @Test
+    void keepsDotsAroundShipsOnlyUntilCleared() throws ShipPlacementException {
+        field.putShip(0, 0, 2, 1, 0);
+        assertEquals('*', field.getCell(2, 0));
+        assertEquals('*', field.getCell(2, 1));
+        field.clear();
+        assertEquals(Field.getEmptyCell(), field.getCell(2, 0));
+        assertEquals(Field.getFilledCell(), field.getCell(0, 0));
+    }
+
+    @Test
+    void shootsMissHitKillAndAlready() throws ShipPlacementException {
+        field.putShip(3, 3, 2, 3, 4);
+        field.putShip(7, 7);
+        field.clear();
+
+        assertEquals(0, field.checkDeckAtField(0, 0));
+        assertEquals('*', field.getCell(0, 0));
+        assertEquals(-1, field.checkDeckAtField(0, 0));
+
+        assertEquals(1, field.checkDeckAtField(3, 3));
+        assertEquals('X', field.getCell(3, 3));
+        assertEquals(-1, field.checkDeckAtField(3, 3));
+        assertEquals(2, field.getShipsNumber());
+
+        assertEquals(2, field.checkDeckAtField(3, 4));
+        assertEquals(1, field.getShipsNumber());
+        // cells around the killed ship are dotted, so they can't be shoot again
+        assertEquals('*', field.getCell(2, 2));
+        assertEquals('*', field.getCell(4, 5));
+        assertEquals(-1, field.checkDeckAtField(4, 4));
+
+        assertEquals(2, field.checkDeckAtField(7, 7));
+        assertEquals(0, field.getShipsNumber());
+    }
+
+    @Test
+    void hidesShipsFromTheObserver() throws ShipPlacementException {
+        field.putShip(2, 2);
+        field.clear();
+        BoardView view = field.getObserverView();
+        assertEquals(BoardView.EMPTY, view.getCellState(2, 2));
+        assertTrue(view.isAvailableForShoot(2, 2));
+        field.checkDeckAtField(2, 2);
+        assertFalse(view.isAvailableForShoot(2, 2));
+        assertEquals(field.getCellState(2, 2), view.getCellState(2, 2));
+    }
+
+    @Test
+    void removesShotCellsFromAvailableOnes() throws ShipPlacementException {
+        field.putShip(0, 0);
+        field.clear();
+        int cells = GameConfig.CLASSIC.getCellsNumber();
+        assertEquals(cells, field.getAvailableCellsNumber());
+        field.checkDeckAtField(5, 5);
+        field.checkDeckAtField(5, 5);
+        assertEquals(cells - 1, field.getAvailableCellsNumber());
+        field.checkDeckAtField(0, 0);
+        // the killed ship and 3 dots around it
+        assertEquals(cells - 5, field.getAvailableCellsNumber());
+        for (int i = 0; i < field.getAvailableCellsNumber(); i++) {
+            int cell = field.getAvailableCell(i);
+            assertTrue(field.isAvailableForShoot(Coordinates.x(cell), Coordinates.y(cell)));
+        }
+    }
+
+    @Test
+    void resetRemovesShips() throws ShipPlacementException {
+        field.putShip(4, 4, 3, 6, 4);
+        long empty = new Field(GameConfig.CLASSIC).getPositionHash();
+        field.reset();
+        assertEquals(0, field.getShipsNumber());
+        assertEquals(Field.getEmptyCell(), field.getCell(5, 4));
+        assertEquals(empty, field.getPositionHash());
+        assertTrue(field.putShip(5, 4));
+    }
+
+    private static void assertReason(String reason, Placement placement) {
+        ShipPlacementException e = assertThrows(ShipPlacementException.class, placement::put);
+        assertEquals(reason, e.getMessage());
+    }
+
+    private interface Placement {
+        void put() throws ShipPlacementException;
+    }
+}
@@ -0,0 +1,100 @@
+package battleship;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The read-only archive doesn't change its files, even if the last game is not written till the end
+ */
+class GameArchiveTest {
+    private static final int GAMES = 3;
+
+    @TempDir
+    Path directory;
+
+    private static GameRecord recordGame() {
+        MachineLogic first = new MachineLogic("First", GameConfig.CLASSIC, new RandomShotStrategy(), new LegalPlacementStrategy());
+        MachineLogic second = new MachineLogic("Second", GameConfig.CLASSIC, new RandomShotStrategy(), new LegalPlacementStrategy());
+        first.setPacing(TurnPacing.NONE);
+        second.setPacing(TurnPacing.NONE);
+        GameRecord record = new GameRecord();
+        Tournament.playGame(first, second, true, record);
+        return record;
+    }
+
+    /**
+     * Archive of a few games with a half of one more game at the end of the data file
+     */
+    private Path writeArchive() throws IOException {
+        Path file = directory.resolve("games.bin");
+        try (GameArchive archive = GameArchive.open(file)) {
+            for (int i = 0; i < GAMES; i++) {
+                archive.append(recordGame());
+            }
+        }
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length / GAMES / 2), StandardOpenOption.APPEND);
+        return file;
+    }
+
+    private static int countGames(GameArchive archive) throws IOException {
+        int games = 0;
+        GameArchive.Cursor cursor = archive.cursor(0);
+        while (cursor.next()) {
+            games++;
+        }
+        return games;
+    }
+
+    @Test
+    void skipsTruncatedGameWithoutChangingFiles() throws IOException {
+        Path file = writeArchive();
+        Path index = Paths.get(file + ".idx");
+        byte[] data = Files.readAllBytes(file);
+        byte[] entries = Files.readAllBytes(index);
+
+        try (GameArchive archive = GameArchive.openReadOnly(file)) {
+            assertEquals(GAMES, archive.size());
+            assertEquals(GAMES, countGames(archive));
+            assertThrows(IllegalStateException.class, () -> archive.append(recordGame()));
+        }
+        assertArrayEquals(data, Files.readAllBytes(file));
+        assertArrayEquals(entries, Files.readAllBytes(index));
+    }
+
+    @Test
+    void indexesGamesInMemoryWithoutIndexFile() throws IOException {
+        Path file = writeArchive();
+        Path index = Paths.get(file + ".idx");
+        Files.delete(index);
+
+        try (GameArchive archive = GameArchive.openReadOnly(file)) {
+            assertEquals(GAMES, archive.size());
+            assertEquals(GAMES, countGames(archive));
+        }
+        assertFalse(Files.exists(index));
+    }
+
+    @Test
+    void cutsTruncatedGameWhenWritable() throws IOException {
+        Path file = writeArchive();
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEquals(GAMES, archive.size());
+        }
+        try (GameArchive archive = GameArchive.openReadOnly(file)) {
+            assertEquals(GAMES, archive.size());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Recorded game should be the same after writing and reading it, and replayed by the rules
+ */
+class GameRecordTest {
+
+    private static GameRecord recordGame() {
+        GameConfig config = GameConfig.CLASSIC;
+        MachineLogic first = new MachineLogic("First", config, new DensityShotStrategy(), new LegalPlacementStrategy());
+        MachineLogic second = new MachineLogic("Second", config, new RandomShotStrategy(), new LegalPlacementStrategy());
+        first.setPacing(TurnPacing.NONE);
+        second.setPacing(TurnPacing.NONE);
+        GameRecord record = new GameRecord();
+        Tournament.playGame(first, second, true, record);
+        return record;
+    }
+
+    private static ByteBuffer encode(GameRecord record) {
+        ByteBuffer buffer = ByteBuffer.allocate(record.getMaxEncodedSize());
+        record.encode(buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Test
+    void decodesWhatWasEncoded() {
+        GameRecord record = recordGame();
+        ByteBuffer buffer = encode(record);
+
+        GameRecord decoded = new GameRecord();
+        decoded.decode(buffer);
+        assertEquals(0, buffer.remaining());
+        assertEquals(record.isFirstStarts(), decoded.isFirstStarts());
+        assertEquals(record.getWinner(), decoded.getWinner());
+        assertEquals(record.getShotsNumber(), decoded.getShotsNumber());
+        for (int i = 0; i < record.getShotsNumber(); i++) {
+            assertEquals(record.getShot(i), decoded.getShot(i), "shoot #" + i);
+            assertEquals(record.getResult(i), decoded.getResult(i), "result #" + i);
+        }
+        for (int i = 0; i < GameConfig.CLASSIC.getShipsNumber(); i++) {
+            assertEquals(record.getShip(true, i), decoded.getShip(true, i));
+            assertEquals(record.getShip(false, i), decoded.getShip(false, i));
+        }
+    }
+
+    @Test
+    void replaysDecodedGame() {
+        GameRecord record = recordGame();
+        GameRecord decoded = new GameRecord();
+        decoded.decode(encode(record));
+
+        Field first = new Field(GameConfig.CLASSIC);
+        Field second = new Field(GameConfig.CLASSIC);
+        decoded.replay(first, second);
+        Field loser = decoded.getWinner() ? second : first;
+        Field winner = decoded.getWinner() ? first : second;
+        assertEquals(0, loser.getShipsNumber());
+        assertTrue(winner.getShipsNumber() > 0);
+    }
+
+    @Test
+    void refusesTruncatedRecord() {
+        ByteBuffer buffer = encode(recordGame());
+        for (int length = 0; length < buffer.limit(); length += 7) {
+            ByteBuffer truncated = buffer.duplicate().limit(length);
+            assertThrows(IllegalArgumentException.class, () -> new GameRecord().decode(truncated), "length " + length);
+        }
+    }
+
+    @Test
+    void refusesWrongNumberOfShoots() {
+        GameRecord record = recordGame();
+        ByteBuffer buffer = encode(record);
+        // the number of shoots is the varint right before shoots, it takes 2 bytes when there are more than 127 of them
+        int position = buffer.limit() - record.getShotsNumber() - (record.getShotsNumber() + 3) / 4
+                - (record.getShotsNumber() > 127 ? 2 : 1);
+        ByteBuffer broken = ByteBuffer.allocate(position + 5);
+        broken.put(buffer.duplicate().limit(position));
+        GameRecord.putVarint(broken, Integer.MAX_VALUE);
+        broken.flip();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> new GameRecord().decode(broken));
+        assertEquals("Wrong number of shoots: " + Integer.MAX_VALUE, e.getMessage());
+    }
+
+    @Test
+    void refusesTooBigRecordSize() {
+        ByteBuffer prefix = ByteBuffer.allocate(5);
+        GameRecord.putVarint(prefix, GameRecordWriter.MAX_RECORD_SIZE + 1);
+        GameRecordReader reader = new GameRecordReader(Channels.newChannel(
+                new ByteArrayInputStream(prefix.array(), 0, prefix.position())));
+        assertThrows(IllegalArgumentException.class, () -> reader.next(new GameRecord()));
+    }
+}
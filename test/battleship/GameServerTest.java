@@ -0,0 +1,92 @@
+package battleship;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Whole game of a client against the computer at the local server
+ */
+@Timeout(30)
+class GameServerTest {
+    private GameServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new GameServer(new InetSocketAddress("localhost", 0), GameConfig.CLASSIC, "density");
+        serverThread = new Thread(server, "Game server");
+        serverThread.start();
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        server.stop();
+        serverThread.join();
+        server.close();
+    }
+
+    @Test
+    void playsGameAgainstComputerToTheEnd() throws Exception {
+        playGame();
+    }
+
+    @Test
+    void pausesComputerWithoutBlockingTheServer() throws Exception {
+        server.setComputerPacing(TurnPacing.scheduled(2));
+        playGame();
+    }
+
+    private void playGame() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getPort())) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            assertTrue(in.readLine().startsWith("WELCOME"));
+            out.println("NAME tester");
+            assertEquals("OK", in.readLine());
+            out.println("NEW AI random");
+            assertTrue(in.readLine().startsWith("GAME "));
+            assertTrue(in.readLine().startsWith("SHIPS "));
+            out.println("AUTO");
+            assertEquals("READY", in.readLine());
+
+            // every cell is shot in turn, so the game is over before they are finished
+            int width = GameConfig.CLASSIC.getWidth();
+            int next = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals("WIN") || line.equals("LOSE")) break;
+                boolean myTurn = line.equals("TURN YOU")
+                        || line.startsWith("HIT ") || line.startsWith("KILL ") || line.startsWith("ALREADY ");
+                if (!myTurn) continue;
+                out.println("FIRE " + Coordinates.toString(next % width, next / width));
+                next++;
+            }
+            assertTrue(line != null, "connection was closed before the end of the game");
+
+            // the shoot sent after the last KILL is answered by an error, since the game is over already
+            out.println("QUIT");
+            do {
+                line = in.readLine();
+            } while (line != null && line.startsWith("ERROR"));
+            assertEquals("BYE", line);
+        }
+        // the game is counted by the server thread after the last answer is sent
+        while (server.getGamesFinished() == 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, server.getGamesFinished());
+    }
+}
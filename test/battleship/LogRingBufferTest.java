@@ -0,0 +1,86 @@
+package battleship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Events are read in the order they were written, also after the buffer wrapped around
+ */
+class LogRingBufferTest {
+
+    private static boolean offer(LogRingBuffer buffer, String text) {
+        return buffer.offer(System.nanoTime(), LogRingBuffer.MESSAGE, Logger.Level.INFO, text, null, null, null, null);
+    }
+
+    private static List<String> drain(LogRingBuffer buffer) {
+        List<String> texts = new ArrayList<>();
+        buffer.drain((time, kind, level, text, error, arguments) -> texts.add(text));
+        return texts;
+    }
+
+    @Test
+    void keepsOrderAfterWrappingAround() {
+        LogRingBuffer buffer = new LogRingBuffer(4);
+        int next = 0;
+        for (int round = 0; round < 5; round++) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                String text = "event " + next++;
+                assertTrue(offer(buffer, text));
+                expected.add(text);
+            }
+            assertFalse(buffer.isEmpty());
+            assertEquals(expected, drain(buffer));
+            assertTrue(buffer.isEmpty());
+        }
+        assertEquals(0, buffer.takeDropped());
+    }
+
+    @Test
+    void dropsAndCountsEventsWhenFull() {
+        LogRingBuffer buffer = new LogRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(offer(buffer, "event " + i));
+        }
+        assertFalse(offer(buffer, "lost 1"));
+        assertFalse(offer(buffer, "lost 2"));
+        assertEquals(2, buffer.takeDropped());
+        assertEquals(0, buffer.takeDropped());
+
+        assertEquals(List.of("event 0", "event 1", "event 2", "event 3"), drain(buffer));
+        assertTrue(offer(buffer, "event 4"));
+        assertEquals(List.of("event 4"), drain(buffer));
+    }
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        LogRingBuffer buffer = new LogRingBuffer(5);
+        int accepted = 0;
+        while (offer(buffer, "event")) {
+            accepted++;
+        }
+        assertEquals(8, accepted);
+    }
+
+    @Test
+    void passesArgumentsAndForgetsThemAfterReading() {
+        LogRingBuffer buffer = new LogRingBuffer(2);
+        buffer.offer(1, LogRingBuffer.FORMATTED, Logger.Level.WARN, "{} of {}", null, 3, 10, null);
+        List<Object> seen = new ArrayList<>();
+        buffer.drain((time, kind, level, text, error, arguments) -> {
+            assertEquals(LogRingBuffer.FORMATTED, kind);
+            assertEquals(Logger.Level.WARN, level);
+            seen.add(arguments[0]);
+            seen.add(arguments[1]);
+            assertNull(arguments[2]);
+        });
+        assertEquals(List.of(3, 10), seen);
+    }
+}
@@ -0,0 +1,66 @@
+package battleship;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Every bucket has 4 ways, so a cache of 4 entries is one bucket and every key goes there
+ */
+class ShotCacheTest {
+
+    @Test
+    void returnsSavedShots() {
+        ShotCache cache = new ShotCache(4);
+        assertEquals(-1, cache.get(42));
+        cache.put(42, 7);
+        cache.put(0, 9);
+        assertEquals(7, cache.get(42));
+        assertEquals(9, cache.get(0));
+        cache.put(42, 8);
+        assertEquals(8, cache.get(42));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void evictsNotReferencedEntriesFirst() {
+        ShotCache cache = new ShotCache(4);
+        assertEquals(4, cache.capacity());
+        for (long key = 1; key <= 4; key++) {
+            cache.put(key, (int) key);
+        }
+        cache.get(1);
+        cache.get(3);
+
+        cache.put(5, 5);
+        assertEquals(-1, cache.get(2));
+        cache.put(6, 6);
+        assertEquals(-1, cache.get(4));
+        assertEquals(1, cache.get(1));
+        assertEquals(3, cache.get(3));
+        assertEquals(5, cache.get(5));
+        assertEquals(6, cache.get(6));
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    void loadsSavedEntries(@TempDir Path directory) throws IOException {
+        ShotCache cache = new ShotCache(64);
+        for (long key = 1; key <= 20; key++) {
+            cache.put(key * 0x9E3779B97F4A7C15L, (int) key);
+        }
+        Path file = directory.resolve("book.bin");
+        cache.save(file);
+
+        ShotCache loaded = new ShotCache(64);
+        loaded.load(file);
+        assertEquals(cache.size(), loaded.size());
+        for (long key = 1; key <= 20; key++) {
+            assertEquals(cache.get(key * 0x9E3779B97F4A7C15L), loaded.get(key * 0x9E3779B97F4A7C15L));
+        }
+    }
+}